@@ -0,0 +1,183 @@
+package com.wodendev.springbackend.benchmarks;
+
+import com.wodendev.springbackend.SpringBackendApplication;
+import com.wodendev.springbackend.entity.Task;
+import com.wodendev.springbackend.service.Schema;
+import com.wodendev.springbackend.service.TaskService;
+import com.wodendev.springbackend.service.TaskStore;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One booted backend (no web server) over a freshly seeded tasks table, shared by
+ * every benchmark thread of a trial. The read-through cache, findAll coalescing
+ * and write queue are off so each call reaches the database.
+ *
+ * Seeded rows have ids "seed-0" .. "seed-(rows-1)"; every {@link #SEARCH_WORDS}
+ * entry appears in 1/{@code SEARCH_WORDS.length} of them.
+ *
+ * {@code store} picks the TaskStore engine; with "memory" the tasks live in
+ * MemoryTaskStore (journal in a temporary directory) and {@code db} only hosts
+ * the unused SQL schema, so compare with -p db=sqlite -p store=jdbc,memory.
+ * "sharded" spreads them over SQLite files in another temporary directory.
+ */
+@State(Scope.Benchmark)
+public class BackendState {
+    static final String[] SEARCH_WORDS = {
+            "invoice", "meeting", "review", "deploy", "refactor", "triage", "backup", "release",
+            "budget", "hiring", "roadmap", "support", "audit", "migrate", "design", "report"
+    };
+    static final String SEARCH_TERM = SEARCH_WORDS[3];
+    private static final int SEED_CHUNK = 10_000;
+
+    @Param({"h2", "sqlite"})
+    public String db;
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    /** app.schema.indexes.enabled; pass -p indexes=true,false to measure what the indexes buy. */
+    @Param({"true"})
+    public boolean indexes;
+
+    /** app.tasks.id-strategy for tasks created without an id. */
+    @Param({"uuid"})
+    public String idStrategy;
+
+    /** app.tasks.store: jdbc, memory or sharded. */
+    @Param({"jdbc"})
+    public String store;
+
+    ConfigurableApplicationContext context;
+    TaskService taskService;
+    JdbcTemplate jdbc;
+    TaskStore taskStore;
+    Path sqliteFile;
+    private Path storeDir;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        Map<String, Object> props = new HashMap<>();
+        props.put("spring.main.banner-mode", "off");
+        props.put("logging.level.root", "WARN");
+        props.put("app.cache.enabled", "false");
+        props.put("app.cache.coalesce.enabled", "false");
+        props.put("app.write-queue.enabled", "false");
+        props.put("app.batch.max-items", String.valueOf(Integer.MAX_VALUE));
+        props.put("app.schema.indexes.enabled", String.valueOf(indexes));
+        props.put("app.tasks.id-strategy", idStrategy);
+        props.put("app.tasks.store", store);
+        if ("memory".equals(store)) {
+            storeDir = Files.createTempDirectory("tasks-bench-store-");
+            props.put("app.tasks.store.memory.dir", storeDir.toString());
+        } else if ("sharded".equals(store)) {
+            storeDir = Files.createTempDirectory("tasks-bench-shards-");
+            props.put("app.tasks.store.shards.dir", storeDir.toString());
+        }
+        if ("sqlite".equals(db)) {
+            sqliteFile = Files.createTempFile("tasks-bench-", ".sqlite3");
+            props.put("DATABASE_PATH", sqliteFile.toString());
+        } else if ("h2".equals(db)) {
+            props.put("spring.datasource.url", "jdbc:h2:mem:bench-" + System.nanoTime()
+                    + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;NON_KEYWORDS=DAY");
+        } else {
+            throw new IllegalArgumentException("Unknown db parameter: " + db);
+        }
+
+        context = new SpringApplicationBuilder(SpringBackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(props)
+                .run();
+
+        // DataSourceConfig prefers a database.sqlite3 found near the working directory
+        // over the configured H2 URL; refuse to report numbers for the wrong database.
+        Schema schema = context.getBean(Schema.class);
+        if ("h2".equals(db) ? !schema.isH2() : !schema.isSQLite()) {
+            throw new IllegalStateException("Benchmark asked for " + db + " but the backend connected to another database;"
+                    + " run from a directory without a database.sqlite3 nearby");
+        }
+
+        taskService = context.getBean(TaskService.class);
+        jdbc = context.getBean(JdbcTemplate.class);
+        taskStore = context.getBean(TaskStore.class);
+        seed();
+    }
+
+    private void seed() {
+        for (int from = 0; from < rows; from += SEED_CHUNK) {
+            int to = Math.min(rows, from + SEED_CHUNK);
+            List<Task> chunk = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                chunk.add(task("seed-" + i, i));
+            }
+            taskStore.insertAll(chunk);
+        }
+    }
+
+    /** Drops rows added by the create benchmark so the table size stays at {@link #rows}. */
+    @TearDown(Level.Iteration)
+    public void purgeCreated() {
+        if ("jdbc".equals(store)) {
+            jdbc.update("DELETE FROM tasks WHERE id LIKE 'new-%'");
+            return;
+        }
+        List<String> created = new ArrayList<>();
+        taskStore.export(null, t -> {
+            if (t.getId().startsWith("new-")) {
+                created.add(t.getId());
+            }
+        });
+        taskStore.deleteAll(created);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        if (context != null) {
+            if ("h2".equals(db)) {
+                // DB_CLOSE_DELAY=-1 keeps the in-memory database alive after the pools close.
+                jdbc.execute("SHUTDOWN");
+            }
+            context.close();
+        }
+        if (sqliteFile != null) {
+            Files.deleteIfExists(sqliteFile);
+            Files.deleteIfExists(Path.of(sqliteFile + "-wal"));
+            Files.deleteIfExists(Path.of(sqliteFile + "-shm"));
+        }
+        if (storeDir != null) {
+            FileSystemUtils.deleteRecursively(storeDir);
+        }
+    }
+
+    String randomSeedId() {
+        return "seed-" + ThreadLocalRandom.current().nextInt(rows);
+    }
+
+    static Task task(String id, int n) {
+        Task t = new Task();
+        t.setId(id);
+        t.setText("Task " + n + " " + SEARCH_WORDS[n % SEARCH_WORDS.length] + " follow-up");
+        t.setDay("2024-01-" + String.format("%02d", n % 28 + 1));
+        t.setReminder(n % 2 == 0);
+        return t;
+    }
+}
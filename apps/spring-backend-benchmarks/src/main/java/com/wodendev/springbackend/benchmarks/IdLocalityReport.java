@@ -0,0 +1,54 @@
+package com.wodendev.springbackend.benchmarks;
+
+import com.wodendev.springbackend.entity.Task;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inserts the same tasks into an empty SQLite file once per app.tasks.id-strategy,
+ * letting the backend generate the ids, and prints the insert rate and the
+ * database file size afterwards. Random ids split pages all over the primary key
+ * index; time-ordered ids append to it, which shows up in both numbers once the
+ * index no longer fits the page cache:
+ *
+ * mvn -f pom.xml -pl apps/spring-backend-benchmarks -am -DskipTests -Pbenchmark package \
+ *     -Dbenchmark.main=com.wodendev.springbackend.benchmarks.IdLocalityReport -Djmh.args="1000000"
+ */
+public class IdLocalityReport {
+    private static final int CHUNK = 10_000;
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        System.out.printf("%-8s %12s %12s %14s%n", "ids", "rows", "rows/s", "file bytes");
+        for (String strategy : new String[]{"uuid", "uuidv7", "ulid"}) {
+            BackendState state = new BackendState();
+            state.db = "sqlite";
+            state.rows = 0;
+            state.indexes = true;
+            state.idStrategy = strategy;
+            state.store = "jdbc";
+            state.start();
+            try {
+                long start = System.nanoTime();
+                for (int from = 0; from < rows; from += CHUNK) {
+                    int to = Math.min(rows, from + CHUNK);
+                    List<Task> chunk = new ArrayList<>(to - from);
+                    for (int i = from; i < to; i++) {
+                        chunk.add(BackendState.task(null, i));
+                    }
+                    state.taskService.createAll(chunk);
+                }
+                double seconds = (System.nanoTime() - start) / 1e9;
+                // Fold the WAL into the main file so its size is the whole database.
+                state.jdbc.execute("PRAGMA wal_checkpoint(TRUNCATE)");
+                System.out.printf("%-8s %12d %12.0f %14d%n",
+                        strategy, rows, rows / seconds, Files.size(state.sqliteFile));
+            } finally {
+                state.stop();
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.wodendev.springbackend.benchmarks;
+
+import com.wodendev.springbackend.service.Schema;
+import com.wodendev.springbackend.service.TaskSql;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prints the EXPLAIN QUERY PLAN (SQLite) / EXPLAIN (H2) output of the task
+ * statements on a seeded table, with and without Schema's secondary indexes, so
+ * the change in access path is visible without a full benchmark run:
+ *
+ * mvn -f pom.xml -pl apps/spring-backend-benchmarks -am -DskipTests -Pbenchmark package \
+ *     -Dbenchmark.main=com.wodendev.springbackend.benchmarks.QueryPlans -Djmh.args="10000"
+ */
+public class QueryPlans {
+    private static final String SOME_TIME = "2030-01-01 00:00:00";
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        for (String db : new String[]{"sqlite", "h2"}) {
+            for (boolean indexes : new boolean[]{false, true}) {
+                BackendState state = new BackendState();
+                state.db = db;
+                state.rows = rows;
+                state.indexes = indexes;
+                state.idStrategy = "uuid";
+                state.store = "jdbc";
+                state.start();
+                try {
+                    System.out.printf("%n== %s, %d rows, indexes %s ==%n", db, rows, indexes ? "on" : "off");
+                    print(state, state.context.getBean(Schema.class));
+                } finally {
+                    state.stop();
+                }
+            }
+        }
+    }
+
+    private static void print(BackendState state, Schema schema) {
+        TaskSql sql = schema.getSql();
+        String prefix = schema.isSQLite() ? "EXPLAIN QUERY PLAN " : "EXPLAIN ";
+
+        Map<String, Object[]> statements = new LinkedHashMap<>();
+        statements.put(sql.page(), new Object[]{20, 1000});
+        statements.put(sql.seek(null, TaskSql.Seek.FIRST), new Object[]{20});
+        statements.put(sql.seek(null, TaskSql.Seek.AFTER), new Object[]{SOME_TIME, SOME_TIME, "seed-5", 20});
+        if (sql.exportSince() != null) {
+            statements.put(sql.exportSince(), new Object[]{SOME_TIME});
+        }
+        statements.put(sql.deleteByText(), new Object[]{"Task 1 review follow-up"});
+
+        statements.forEach((statement, params) -> {
+            System.out.println(statement);
+            List<String> plan = state.jdbc.query(prefix + statement,
+                    (rs, n) -> rs.getString(rs.getMetaData().getColumnCount()), params);
+            plan.forEach(line -> System.out.println("    " + line.replace("\n", "\n    ")));
+        });
+    }
+}
@@ -0,0 +1,73 @@
+package com.wodendev.springbackend.benchmarks;
+
+import com.wodendev.springbackend.controller.TaskPageJsonWriter;
+import com.wodendev.springbackend.entity.Task;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One GET /tasks page rendered to JSON, the regular way (Task objects, Page,
+ * HashMap envelope, ObjectMapper) against {@link TaskPageJsonWriter} streaming
+ * from the ResultSet. Run with {@code -prof gc}; gc.alloc.rate.norm is the
+ * allocation per request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class TaskListJsonBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Writers {
+        @Param({"20", "200"})
+        public int pageSize;
+
+        ObjectMapper objectMapper;
+        TaskPageJsonWriter pageWriter;
+
+        @Setup(Level.Trial)
+        public void setUp(BackendState state) {
+            objectMapper = state.context.getBean(ObjectMapper.class);
+            pageWriter = new TaskPageJsonWriter(objectMapper);
+        }
+    }
+
+    /** What TaskController.getTasks does on the regular path. */
+    @Benchmark
+    public void mapped(BackendState state, Writers writers) {
+        Page<Task> result = state.taskService.findAll(1, writers.pageSize, null);
+        Map<String, Object> resp = new HashMap<>();
+        resp.put("data", result.getContent());
+        resp.put("total", result.getTotalElements());
+        resp.put("page", 1);
+        resp.put("limit", writers.pageSize);
+        resp.put("totalPages", result.getTotalPages());
+        writers.objectMapper.writeValue(OutputStream.nullOutputStream(), resp);
+    }
+
+    @Benchmark
+    public void streamed(BackendState state, Writers writers) {
+        try (TaskPageJsonWriter.Sink sink = writers.pageWriter.open(OutputStream.nullOutputStream(), null)) {
+            state.taskService.streamPage(1, writers.pageSize, null, sink);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.wodendev.springbackend.benchmarks;
+
+import com.wodendev.springbackend.entity.Task;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency of the {@code TaskService} calls behind the task endpoints, per
+ * database and table size (see {@link BackendState}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class TaskServiceBenchmark {
+    private static final int PAGE_SIZE = 20;
+    private static final AtomicLong CREATED = new AtomicLong();
+
+    @Benchmark
+    public Task create(BackendState state) {
+        return state.taskService.create(BackendState.task("new-" + CREATED.incrementAndGet(), 0));
+    }
+
+    @Benchmark
+    public Object findOne(BackendState state) {
+        return state.taskService.findOne(state.randomSeedId());
+    }
+
+    @Benchmark
+    public Object findAllFirstPage(BackendState state) {
+        return state.taskService.findAll(1, PAGE_SIZE, null);
+    }
+
+    /** A page from the middle of the table, where OFFSET has to skip half the rows. */
+    @Benchmark
+    public Object findAllMiddlePage(BackendState state) {
+        return state.taskService.findAll(Math.max(1, state.rows / PAGE_SIZE / 2), PAGE_SIZE, null);
+    }
+
+    @Benchmark
+    public Object findAllSearch(BackendState state) {
+        return state.taskService.findAll(1, PAGE_SIZE, BackendState.SEARCH_TERM);
+    }
+
+    @Benchmark
+    public Object update(BackendState state) {
+        String id = state.randomSeedId();
+        int n = ThreadLocalRandom.current().nextInt(1_000_000);
+        return state.taskService.update(id, BackendState.task(id, n));
+    }
+
+    @Benchmark
+    public boolean delete(BackendState state, DeleteTarget target) {
+        return state.taskService.remove(target.id);
+    }
+
+    /**
+     * Inserts the row the next delete removes. The insert is not measured, but
+     * per-invocation setup adds some harness overhead to this benchmark only.
+     */
+    @State(Scope.Thread)
+    public static class DeleteTarget {
+        private static final AtomicLong NEXT = new AtomicLong();
+        String id;
+
+        @Setup(Level.Invocation)
+        public void insert(BackendState state) {
+            id = "new-del-" + NEXT.incrementAndGet();
+            Task doomed = BackendState.task(id, 0);
+            doomed.setText("doomed");
+            state.taskStore.insert(doomed);
+        }
+    }
+}
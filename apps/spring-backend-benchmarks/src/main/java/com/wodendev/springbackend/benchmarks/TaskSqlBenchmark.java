@@ -0,0 +1,116 @@
+package com.wodendev.springbackend.benchmarks;
+
+import com.wodendev.springbackend.service.Schema;
+import com.wodendev.springbackend.service.TaskSql;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statement text for one TaskService call, concatenated per call the way
+ * TaskService did before {@link TaskSql} against the lookup it does now. Only
+ * the SQL string is measured; the detected layout (timestamp columns, full-text
+ * support) comes from the booted backend, so {@code -p rows=1000} is enough.
+ * Run with {@code -prof gc} to see the garbage the per-call path leaves behind.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class TaskSqlBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Statements {
+        /** insert: create; page: unfiltered findAll; search: LIKE findAll; seek: findAfter past the first page. */
+        @Param({"insert", "page", "search", "seek"})
+        public String statement;
+
+        String created;
+        String updated;
+        TaskSql sql;
+        // The LIKE filter's parts, which TaskService used to carry per call in a record.
+        String likeFrom = "tasks t WHERE t.text LIKE ?";
+        String likeRank = "";
+
+        @Setup(Level.Trial)
+        public void setUp(BackendState state) {
+            Schema schema = state.context.getBean(Schema.class);
+            created = schema.getCreatedAtColumn();
+            updated = schema.getUpdatedAtColumn();
+            sql = schema.getSql();
+        }
+    }
+
+    @Benchmark
+    public String built(Statements s) {
+        return switch (s.statement) {
+            case "insert" -> builtInsert(s.created, s.updated);
+            case "page" -> "SELECT id, text, day, reminder FROM tasks ORDER BY " + orderBy(s.created, s.updated)
+                    + " DESC LIMIT ? OFFSET ?";
+            case "search" -> "SELECT t.id, t.text, t.day, t.reminder FROM " + s.likeFrom
+                    + " ORDER BY " + s.likeRank + "t." + orderBy(s.created, s.updated) + " DESC LIMIT ? OFFSET ?";
+            case "seek" -> builtSeek(s.created != null ? s.created : s.updated);
+            default -> throw new IllegalArgumentException("Unknown statement: " + s.statement);
+        };
+    }
+
+    @Benchmark
+    public String prebuilt(Statements s) {
+        return switch (s.statement) {
+            case "insert" -> s.sql.insert();
+            case "page" -> s.sql.page();
+            case "search" -> s.sql.like().page();
+            case "seek" -> s.sql.seek(null, TaskSql.Seek.AFTER);
+            default -> throw new IllegalArgumentException("Unknown statement: " + s.statement);
+        };
+    }
+
+    private static String builtInsert(String created, String updated) {
+        StringBuilder cols = new StringBuilder("id, text, day, reminder");
+        StringBuilder vals = new StringBuilder("?, ?, ?, ?");
+        if (created != null) {
+            cols.append(", ").append(created);
+            vals.append(", CURRENT_TIMESTAMP");
+        }
+        if (updated != null) {
+            cols.append(", ").append(updated);
+            vals.append(", CURRENT_TIMESTAMP");
+        }
+        return "INSERT INTO tasks(" + cols + ") VALUES(" + vals + ")";
+    }
+
+    private static String orderBy(String created, String updated) {
+        return created != null ? created : (updated != null ? updated : "id");
+    }
+
+    private static String builtSeek(String sortColumn) {
+        String seek = sortColumn == null
+                ? "id < ?"
+                : sortColumn + " <= ? AND (" + sortColumn + " < ? OR id < ?)";
+        StringBuilder sql = new StringBuilder("SELECT id, text, day, reminder");
+        if (sortColumn != null) {
+            sql.append(", ").append(sortColumn).append(" AS sort_key");
+        }
+        sql.append(" FROM tasks WHERE 1 = 1");
+        sql.append(" AND ").append(seek);
+        if (sortColumn != null) {
+            sql.append(" ORDER BY ").append(sortColumn).append(" DESC, id DESC LIMIT ?");
+        } else {
+            sql.append(" ORDER BY id DESC LIMIT ?");
+        }
+        return sql.toString();
+    }
+}
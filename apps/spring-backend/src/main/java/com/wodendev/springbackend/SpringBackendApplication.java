@@ -2,6 +2,7 @@ package com.wodendev.springbackend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.core.env.Environment;
@@ -18,7 +19,10 @@ public class SpringBackendApplication {
     private Environment environment;
     
     public static void main(String[] args) {
-        SpringApplication.run(SpringBackendApplication.class, args);
+        SpringApplication application = new SpringApplication(SpringBackendApplication.class);
+        // Keeps startup steps for GET /actuator/startup and the timings logged by StartupReadiness.
+        application.setApplicationStartup(new BufferingApplicationStartup(2048));
+        application.run(args);
     }
     
     @EventListener(ApplicationReadyEvent.class)
@@ -0,0 +1,135 @@
+package com.wodendev.springbackend.config;
+
+import com.wodendev.springbackend.exception.DatabaseBusyException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caps how many callers may hold a connection at once, with a bounded FIFO wait.
+ *
+ * The pools already cap connections, but they let every caller wait for the full
+ * connection timeout. With virtual threads the number of callers is effectively
+ * unbounded, so this sheds load early instead: callers beyond {@code maxQueue}
+ * waiters, or still waiting after {@code maxWait}, get a {@link DatabaseBusyException}.
+ * A permit is held from getConnection until close, so a transaction keeps its
+ * permit for its whole span.
+ *
+ * Publishes db.limiter.queued / db.limiter.in-use gauges, a db.limiter.wait timer
+ * and a db.limiter.rejected counter, tagged with the pool name.
+ */
+public class ConcurrencyLimitedDataSource extends DelegatingDataSource {
+    private final String name;
+    private final Semaphore permits;
+    private final long maxWaitNanos;
+    private final int maxQueue;
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    public ConcurrencyLimitedDataSource(DataSource target, String name, int maxConcurrent, Duration maxWait, int maxQueue,
+                                        MeterRegistry registry) {
+        super(target);
+        this.name = name;
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxWaitNanos = maxWait.toNanos();
+        this.maxQueue = maxQueue;
+        this.waitTimer = Timer.builder("db.limiter.wait")
+                .description("Time spent waiting for a database permit")
+                .tag("pool", name)
+                .register(registry);
+        this.rejected = Counter.builder("db.limiter.rejected")
+                .description("Connection requests shed because the database was busy")
+                .tag("pool", name)
+                .register(registry);
+        Gauge.builder("db.limiter.queued", this.permits, Semaphore::getQueueLength)
+                .description("Callers waiting for a database permit")
+                .tag("pool", name)
+                .register(registry);
+        Gauge.builder("db.limiter.in-use", this.permits, p -> maxConcurrent - p.availablePermits())
+                .description("Database permits currently held")
+                .tag("pool", name)
+                .register(registry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return releasing(super.getConnection());
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return releasing(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    private void acquire() throws SQLException {
+        if (permits.getQueueLength() >= maxQueue) {
+            rejected.increment();
+            throw new DatabaseBusyException(name, "Too many requests waiting for the " + name + " database connection");
+        }
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the " + name + " database connection", ex);
+        } finally {
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            rejected.increment();
+            throw new DatabaseBusyException(name, "Timed out waiting for the " + name + " database connection");
+        }
+    }
+
+    private Connection releasing(Connection target) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("equals".equals(method.getName())) {
+                        return proxy == args[0];
+                    }
+                    if ("hashCode".equals(method.getName())) {
+                        return System.identityHashCode(proxy);
+                    }
+                    boolean close = "close".equals(method.getName()) && method.getParameterCount() == 0;
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getTargetException();
+                    } finally {
+                        if (close && released.compareAndSet(false, true)) {
+                            permits.release();
+                        }
+                    }
+                });
+    }
+}
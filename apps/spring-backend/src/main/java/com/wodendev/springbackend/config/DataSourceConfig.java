@@ -1,33 +1,227 @@
 package com.wodendev.springbackend.config;
 
 import com.wodendev.springbackend.exception.DatabaseInitializationException;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.DependsOn;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.core.env.Environment;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.orm.jpa.JpaVendorAdapter;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
 
 import javax.sql.DataSource;
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.List;
 
 @Configuration
 public class DataSourceConfig {
-    
+
     private boolean isSQLite = false;
-    
+
+    private ResolvedDatabase resolved;
+
+    /**
+     * Write pool. SQLite allows a single writer, so the pool holds exactly one
+     * connection and concurrent writers queue on the pool instead of failing with
+     * SQLITE_BUSY. Other databases get a regular pool.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(Environment env, MeterRegistry registry, ApplicationStartup startup) {
+        StartupStep resolveStep = startup.start("app.datasource.resolve");
+        ResolvedDatabase db = resolve(env);
+        resolveStep.tag("sqlite", String.valueOf(db.sqlite())).end();
+        HikariConfig config = baseConfig(env, db, db.sqlite() ? "sqlite-writer" : "db-writer");
+        if (db.sqlite()) {
+            config.setMaximumPoolSize(1);
+            config.setMinimumIdle(1);
+        } else {
+            config.setMaximumPoolSize(env.getProperty("app.datasource.pool.max-size", Integer.class, 10));
+        }
+        return limited(env, registry, openPool(startup, config), "writer", config.getMaximumPoolSize());
+    }
+
+    /**
+     * Read pool. With WAL journaling SQLite readers do not block the writer, so
+     * queries get their own connections. In-memory SQLite databases are private to
+     * a connection and therefore share the write pool.
+     */
+    @Bean
+    public DataSource readDataSource(Environment env, MeterRegistry registry, ApplicationStartup startup,
+                                     @Qualifier("dataSource") DataSource dataSource) {
+        ResolvedDatabase db = resolve(env);
+        if (db.sqlite() && db.inMemory()) {
+            return dataSource;
+        }
+        HikariConfig config = baseConfig(env, db, db.sqlite() ? "sqlite-reader" : "db-reader");
+        config.setMaximumPoolSize(env.getProperty("app.datasource.pool.readers", Integer.class, 4));
+        return limited(env, registry, openPool(startup, config), "reader", config.getMaximumPoolSize());
+    }
+
+    /** Hikari opens its first connection here, which is where SQLite applies the PRAGMAs. */
+    private HikariDataSource openPool(ApplicationStartup startup, HikariConfig config) {
+        StartupStep step = startup.start("app.datasource.pool").tag("pool", config.getPoolName());
+        try {
+            return new HikariDataSource(config);
+        } finally {
+            step.end();
+        }
+    }
+
+    /**
+     * Puts a bounded wait in front of the pool (see {@link ConcurrencyLimitedDataSource}),
+     * one permit per pooled connection, when {@code app.datasource.limiter.enabled} is set.
+     * Off by default, so requests wait for Hikari's connection timeout as before.
+     */
+    private DataSource limited(Environment env, MeterRegistry registry, HikariDataSource pool, String name, int permits) {
+        if (!env.getProperty("app.datasource.limiter.enabled", Boolean.class, false)) {
+            return pool;
+        }
+        return new ConcurrencyLimitedDataSource(
+                pool,
+                name,
+                permits,
+                env.getProperty("app.datasource.limiter.max-wait", Duration.class, Duration.ofSeconds(2)),
+                env.getProperty("app.datasource.limiter.max-queue", Integer.class, 200),
+                registry
+        );
+    }
+
+    @Bean
+    public SlowQueryLog slowQueryLog(Environment env) {
+        return new SlowQueryLog(
+                env.getProperty("app.slow-query.threshold", Duration.class, Duration.ofMillis(250)),
+                env.getProperty("app.slow-query.explain", Boolean.class, true),
+                env.getProperty("app.slow-query.capacity", Integer.class, 100)
+        );
+    }
+
+    @Bean
+    @Primary
+    public JdbcTemplate jdbcTemplate(@Qualifier("dataSource") DataSource dataSource,
+                                     SlowQueryLog slowQueryLog) {
+        return template(dataSource, slowQueryLog, isSQLite);
+    }
+
+    @Bean
+    public JdbcTemplate readJdbcTemplate(@Qualifier("readDataSource") DataSource readDataSource,
+                                         SlowQueryLog slowQueryLog) {
+        return template(readDataSource, slowQueryLog, isSQLite);
+    }
+
+    /** Times statements for the slow-query log unless {@code app.slow-query.threshold} is zero or negative. */
+    private JdbcTemplate template(DataSource dataSource, SlowQueryLog slowQueryLog, boolean sqlite) {
+        if (!slowQueryLog.isEnabled()) {
+            return new JdbcTemplate(dataSource);
+        }
+        return new SlowQueryJdbcTemplate(dataSource, slowQueryLog, sqlite);
+    }
+
+    /**
+     * SQLite files for {@code app.tasks.store=sharded}, or none in other modes. Each
+     * shard gets the main database's PRAGMAs and limiter, a single writer connection
+     * and {@code app.tasks.store.shards.readers} reader connections.
+     */
+    @Bean
+    public TaskShards taskShards(Environment env, MeterRegistry registry, ApplicationStartup startup,
+                                 SlowQueryLog slowQueryLog) throws IOException {
+        if (!"sharded".equalsIgnoreCase(env.getProperty("app.tasks.store", "jdbc").trim())) {
+            return TaskShards.none();
+        }
+        int count = Math.max(1, env.getProperty("app.tasks.store.shards.count", Integer.class, 4));
+        int readers = Math.max(1, env.getProperty("app.tasks.store.shards.readers", Integer.class, 2));
+        Path dir = TaskShards.directory(env);
+        Files.createDirectories(dir);
+
+        // Files beyond count are left over from a larger shard count and still hold rows to move.
+        int files = Math.max(count, TaskShards.existingFiles(dir));
+        TaskShards shards = new TaskShards(count);
+        try {
+            for (int i = 0; i < files; i++) {
+                Path file = TaskShards.file(dir, i);
+                ResolvedDatabase db = ResolvedDatabase.sqlite("jdbc:sqlite:" + file);
+
+                HikariConfig writerConfig = baseConfig(env, db, "sqlite-shard-" + i + "-writer");
+                writerConfig.setMaximumPoolSize(1);
+                writerConfig.setMinimumIdle(1);
+                HikariDataSource writerPool = openPool(startup, writerConfig);
+                HikariConfig readerConfig = baseConfig(env, db, "sqlite-shard-" + i + "-reader");
+                readerConfig.setMaximumPoolSize(readers);
+                HikariDataSource readerPool = openPool(startup, readerConfig);
+
+                DataSource writer = limited(env, registry, writerPool, "shard-" + i + "-writer", 1);
+                DataSource reader = limited(env, registry, readerPool, "shard-" + i + "-reader", readers);
+                shards.add(new TaskShards.Shard(i, file, writer,
+                        template(writer, slowQueryLog, true), template(reader, slowQueryLog, true)), writerPool, readerPool);
+            }
+        } catch (RuntimeException ex) {
+            shards.close();
+            throw ex;
+        }
+        return shards;
+    }
+
     @Bean
-    public DataSource dataSource(Environment env) {
+    @DependsOn("dataSource")
+    public JpaVendorAdapter jpaVendorAdapter() {
+        HibernateJpaVendorAdapter adapter = new HibernateJpaVendorAdapter();
+        if (isSQLite) {
+            adapter.setDatabasePlatform("org.hibernate.community.dialect.SQLiteDialect");
+        }
+        return adapter;
+    }
+
+    private HikariConfig baseConfig(Environment env, ResolvedDatabase db, String poolName) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName);
+        config.setDriverClassName(db.driverClassName());
+        config.setJdbcUrl(db.url());
+        config.setConnectionTimeout(env.getProperty("app.datasource.pool.connection-timeout", Long.class, 30000L));
+        if (db.username() != null) {
+            config.setUsername(db.username());
+            config.setPassword(db.password());
+        }
+        if (db.sqlite()) {
+            // sqlite-jdbc applies these as PRAGMAs every time it opens a connection.
+            config.addDataSourceProperty("journal_mode", env.getProperty("app.datasource.sqlite.journal-mode", "WAL"));
+            config.addDataSourceProperty("synchronous", env.getProperty("app.datasource.sqlite.synchronous", "NORMAL"));
+            config.addDataSourceProperty("mmap_size", env.getProperty("app.datasource.sqlite.mmap-size", "268435456"));
+            config.addDataSourceProperty("cache_size", env.getProperty("app.datasource.sqlite.cache-size", "-20000"));
+            config.addDataSourceProperty("busy_timeout", env.getProperty("app.datasource.sqlite.busy-timeout", "5000"));
+        } else if (db.url().startsWith("jdbc:h2:")) {
+            // Per-session cache of parsed statements, keyed by SQL text. TaskSql keeps
+            // that text stable; H2's default of 8 entries is smaller than our working set.
+            config.addDataSourceProperty("QUERY_CACHE_SIZE", env.getProperty("app.datasource.h2.query-cache-size", "64"));
+        }
+        return config;
+    }
+
+    private ResolvedDatabase resolve(Environment env) {
+        if (resolved == null) {
+            resolved = resolveDatabase(env);
+            isSQLite = resolved.sqlite();
+        }
+        return resolved;
+    }
+
+    private ResolvedDatabase resolveDatabase(Environment env) {
         String configuredUrl = env.getProperty("spring.datasource.url");
         String databasePath = env.getProperty("DATABASE_PATH");
 
         if (databasePath != null && !databasePath.isBlank()) {
             Path dbPath = Paths.get(databasePath).toAbsolutePath().normalize();
-            
+
             // Create the database file if it doesn't exist (SQLite will handle this)
             // but check if the parent directory exists and is writable
             if (!Files.exists(dbPath)) {
@@ -57,19 +251,11 @@ public class DataSourceConfig {
                 }
             }
 
-            isSQLite = true;
-            DriverManagerDataSource ds = new DriverManagerDataSource();
-            ds.setDriverClassName("org.sqlite.JDBC");
-            ds.setUrl("jdbc:sqlite:" + dbPath.toString());
-            return ds;
+            return ResolvedDatabase.sqlite("jdbc:sqlite:" + dbPath.toString());
         }
 
         if (configuredUrl != null && configuredUrl.startsWith("jdbc:sqlite:")) {
-            isSQLite = true;
-            DriverManagerDataSource ds = new DriverManagerDataSource();
-            ds.setDriverClassName("org.sqlite.JDBC");
-            ds.setUrl(configuredUrl);
-            return ds;
+            return ResolvedDatabase.sqlite(configuredUrl);
         }
 
         // Try to locate database.sqlite3 in common repo-root locations (cwd, parent, parent's parent,...)
@@ -90,34 +276,29 @@ public class DataSourceConfig {
                     "SQLite database file is not readable/writable"
                 );
             }
-                isSQLite = true;
-                String url = "jdbc:sqlite:" + abs.toString();
-                DriverManagerDataSource ds = new DriverManagerDataSource();
-                ds.setDriverClassName("org.sqlite.JDBC");
-                ds.setUrl(url);
-                return ds;
+                return ResolvedDatabase.sqlite("jdbc:sqlite:" + abs.toString());
             }
         }
 
         // Fallback to configured datasource (H2 in-memory)
         // Use default H2 if no datasource URL is configured
-        isSQLite = false;
-        String fallbackUrl = configuredUrl != null ? configuredUrl : "jdbc:h2:mem:springdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
-        DriverManagerDataSource ds = new DriverManagerDataSource();
-        ds.setDriverClassName(env.getProperty("spring.datasource.driver-class-name", "org.h2.Driver"));
-        ds.setUrl(fallbackUrl);
-        ds.setUsername(env.getProperty("spring.datasource.username", "sa"));
-        ds.setPassword(env.getProperty("spring.datasource.password", ""));
-        return ds;
+        String fallbackUrl = configuredUrl != null ? configuredUrl : "jdbc:h2:mem:springdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;NON_KEYWORDS=DAY";
+        return new ResolvedDatabase(
+                fallbackUrl,
+                env.getProperty("spring.datasource.driver-class-name", "org.h2.Driver"),
+                env.getProperty("spring.datasource.username", "sa"),
+                env.getProperty("spring.datasource.password", ""),
+                false
+        );
     }
-    
-    @Bean
-    @DependsOn("dataSource")
-    public JpaVendorAdapter jpaVendorAdapter() {
-        HibernateJpaVendorAdapter adapter = new HibernateJpaVendorAdapter();
-        if (isSQLite) {
-            adapter.setDatabasePlatform("org.hibernate.community.dialect.SQLiteDialect");
+
+    private record ResolvedDatabase(String url, String driverClassName, String username, String password, boolean sqlite) {
+        static ResolvedDatabase sqlite(String url) {
+            return new ResolvedDatabase(url, "org.sqlite.JDBC", null, null, true);
+        }
+
+        boolean inMemory() {
+            return url.contains(":memory:") || url.contains("mode=memory");
         }
-        return adapter;
     }
 }
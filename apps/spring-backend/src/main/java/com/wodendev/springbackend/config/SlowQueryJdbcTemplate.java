@@ -0,0 +1,175 @@
+package com.wodendev.springbackend.config;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import javax.sql.DataSource;
+import java.sql.ResultSetMetaData;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * JdbcTemplate that times each SQL-string call and hands the ones over the
+ * threshold to {@link SlowQueryLog}, with the shapes of the bound parameters
+ * (types and string lengths, not values), the row count and, if enabled, the
+ * plan from {@code EXPLAIN QUERY PLAN} (SQLite) or {@code EXPLAIN} (H2).
+ *
+ * Only the String-based entry points are covered; statements built by a caller's
+ * own PreparedStatementCreator (the streaming export) have no SQL text to report.
+ */
+public class SlowQueryJdbcTemplate extends JdbcTemplate {
+    private final SlowQueryLog log;
+    private final String explainPrefix;
+
+    public SlowQueryJdbcTemplate(DataSource dataSource, SlowQueryLog log, boolean sqlite) {
+        super(dataSource);
+        this.log = log;
+        this.explainPrefix = sqlite ? "EXPLAIN QUERY PLAN " : "EXPLAIN ";
+    }
+
+    @Override
+    public <T> T query(String sql, PreparedStatementSetter pss, ResultSetExtractor<T> rse) throws DataAccessException {
+        long start = System.nanoTime();
+        T result = super.query(sql, pss, rse);
+        long elapsed = System.nanoTime() - start;
+        if (log.isSlow(elapsed)) {
+            slow(sql, args(pss), rows(result), elapsed);
+        }
+        return result;
+    }
+
+    @Override
+    public <T> T query(String sql, ResultSetExtractor<T> rse) throws DataAccessException {
+        long start = System.nanoTime();
+        T result = super.query(sql, rse);
+        long elapsed = System.nanoTime() - start;
+        if (log.isSlow(elapsed)) {
+            slow(sql, null, rows(result), elapsed);
+        }
+        return result;
+    }
+
+    @Override
+    public int update(String sql, PreparedStatementSetter pss) throws DataAccessException {
+        long start = System.nanoTime();
+        int affected = super.update(sql, pss);
+        long elapsed = System.nanoTime() - start;
+        if (log.isSlow(elapsed)) {
+            slow(sql, args(pss), affected, elapsed);
+        }
+        return affected;
+    }
+
+    @Override
+    public void execute(String sql) throws DataAccessException {
+        long start = System.nanoTime();
+        super.execute(sql);
+        long elapsed = System.nanoTime() - start;
+        if (log.isSlow(elapsed)) {
+            slow(sql, null, 0, elapsed);
+        }
+    }
+
+    @Override
+    public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                   ParameterizedPreparedStatementSetter<T> pss) throws DataAccessException {
+        long start = System.nanoTime();
+        int[][] counts = super.batchUpdate(sql, batchArgs, batchSize, pss);
+        long elapsed = System.nanoTime() - start;
+        if (log.isSlow(elapsed)) {
+            // The plan of one row is the plan of the batch, but there are no single-row args to bind.
+            log.add(new SlowQueryLog.Entry(Instant.now(), sql, List.of("batch of " + batchArgs.size()),
+                    batchArgs.size(), elapsed / 1_000_000, null));
+        }
+        return counts;
+    }
+
+    /** Remembers the arguments so a slow statement can report their shapes and be explained. */
+    @Override
+    protected PreparedStatementSetter newArgPreparedStatementSetter(Object[] args) {
+        return new CapturingSetter(args);
+    }
+
+    private void slow(String sql, Object[] args, long rows, long elapsedNanos) {
+        String plan = log.isExplain() ? plan(sql, args) : null;
+        log.add(new SlowQueryLog.Entry(Instant.now(), sql, shapes(args), rows, elapsedNanos / 1_000_000, plan));
+    }
+
+    private String plan(String sql, Object[] args) {
+        String cached = log.cachedPlan(sql);
+        if (cached != null) {
+            return cached;
+        }
+        String verb = sql.stripLeading().toLowerCase(Locale.ROOT);
+        if (!(verb.startsWith("select") || verb.startsWith("with") || verb.startsWith("update")
+                || verb.startsWith("delete") || verb.startsWith("insert"))) {
+            return null;
+        }
+        String plan;
+        try {
+            // super: the EXPLAIN itself is not timed.
+            plan = super.query(explainPrefix + sql, super.newArgPreparedStatementSetter(args), rs -> {
+                ResultSetMetaData meta = rs.getMetaData();
+                // SQLite's detail and H2's PLAN are both the last column.
+                int column = meta.getColumnCount();
+                StringBuilder lines = new StringBuilder();
+                while (rs.next()) {
+                    if (!lines.isEmpty()) {
+                        lines.append('\n');
+                    }
+                    lines.append(rs.getString(column));
+                }
+                return lines.toString();
+            });
+        } catch (DataAccessException ex) {
+            return "EXPLAIN failed: " + ex.getMostSpecificCause().getMessage();
+        }
+        log.cachePlan(sql, plan);
+        return plan;
+    }
+
+    private static Object[] args(PreparedStatementSetter pss) {
+        return pss instanceof CapturingSetter capturing ? capturing.args : null;
+    }
+
+    private static long rows(Object result) {
+        if (result instanceof Collection<?> c) {
+            return c.size();
+        }
+        // Row-callback queries return null and do not report how many rows they saw.
+        return result != null ? 1 : -1;
+    }
+
+    private static List<String> shapes(Object[] args) {
+        if (args == null) {
+            return List.of();
+        }
+        List<String> shapes = new ArrayList<>(args.length);
+        for (Object arg : args) {
+            if (arg == null) {
+                shapes.add("null");
+            } else if (arg instanceof CharSequence s) {
+                shapes.add("String(" + s.length() + ")");
+            } else {
+                shapes.add(arg.getClass().getSimpleName());
+            }
+        }
+        return shapes;
+    }
+
+    private static final class CapturingSetter extends ArgumentPreparedStatementSetter {
+        private final Object[] args;
+
+        CapturingSetter(Object[] args) {
+            super(args);
+            this.args = args;
+        }
+    }
+}
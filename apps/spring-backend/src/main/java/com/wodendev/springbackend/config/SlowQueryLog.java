@@ -0,0 +1,102 @@
+package com.wodendev.springbackend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Statements that took longer than {@code app.slow-query.threshold}, as seen by
+ * {@link SlowQueryJdbcTemplate}. Each one is logged and kept in a ring buffer of
+ * the last {@code app.slow-query.capacity} entries for GET /admin/slow-queries.
+ *
+ * Plans are cached per SQL text: the task statements are built once (see TaskSql),
+ * so one EXPLAIN per statement is enough and a burst of slow queries does not
+ * double the load with EXPLAINs.
+ */
+public class SlowQueryLog {
+    private static final Logger logger = LoggerFactory.getLogger(SlowQueryLog.class);
+    private static final int MAX_CACHED_PLANS = 256;
+
+    public record Entry(Instant at, String sql, List<String> params, long rows, long durationMs, String plan) {
+    }
+
+    private final long thresholdNanos;
+    private final boolean explain;
+    private final int capacity;
+    private final ArrayDeque<Entry> entries;
+    private final Map<String, String> plans = new ConcurrentHashMap<>();
+
+    public SlowQueryLog(Duration threshold, boolean explain, int capacity) {
+        this.thresholdNanos = threshold.toNanos();
+        this.explain = explain;
+        this.capacity = Math.max(1, capacity);
+        this.entries = new ArrayDeque<>(this.capacity);
+    }
+
+    public boolean isEnabled() {
+        return thresholdNanos > 0;
+    }
+
+    public boolean isSlow(long nanos) {
+        return nanos >= thresholdNanos;
+    }
+
+    public boolean isExplain() {
+        return explain;
+    }
+
+    /** Cached plan for this SQL text, or null if it has not been explained yet. */
+    String cachedPlan(String sql) {
+        return plans.get(sql);
+    }
+
+    void cachePlan(String sql, String plan) {
+        if (plans.size() < MAX_CACHED_PLANS) {
+            plans.put(sql, plan);
+        }
+    }
+
+    public void add(Entry entry) {
+        if (entry.plan() != null) {
+            logger.warn("Slow query ({} ms, {} rows): {} params={}\n{}",
+                    entry.durationMs(), entry.rows(), entry.sql(), entry.params(), entry.plan());
+        } else {
+            logger.warn("Slow query ({} ms, {} rows): {} params={}",
+                    entry.durationMs(), entry.rows(), entry.sql(), entry.params());
+        }
+        synchronized (entries) {
+            if (entries.size() == capacity) {
+                entries.removeFirst();
+            }
+            entries.addLast(entry);
+        }
+    }
+
+    /** Newest first. */
+    public List<Entry> entries() {
+        List<Entry> copy;
+        synchronized (entries) {
+            copy = new ArrayList<>(entries);
+        }
+        Collections.reverse(copy);
+        return copy;
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public Duration threshold() {
+        return Duration.ofNanos(thresholdNanos);
+    }
+}
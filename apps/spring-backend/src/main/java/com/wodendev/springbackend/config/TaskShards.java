@@ -0,0 +1,109 @@
+package com.wodendev.springbackend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * The SQLite files behind {@code app.tasks.store=sharded}: {@code tasks-<i>.sqlite3}
+ * in {@code app.tasks.store.shards.dir}, each with its own single-connection writer
+ * pool and reader pool, configured like the main database. Files left over from a
+ * larger {@code app.tasks.store.shards.count} are opened as well, so their rows can
+ * be moved before they are retired (see ShardedTaskStore).
+ */
+public class TaskShards implements AutoCloseable {
+    private static final Pattern FILE = Pattern.compile("tasks-(\\d+)\\.sqlite3");
+
+    /** {@code writer} is the DataSource {@code jdbc} runs on; transactions must use the same one. */
+    public record Shard(int index, Path file, DataSource writer, JdbcTemplate jdbc, JdbcTemplate readJdbc) {
+    }
+
+    private final int count;
+    private final List<Shard> shards = new ArrayList<>();
+    private final List<List<HikariDataSource>> pools = new ArrayList<>();
+
+    TaskShards(int count) {
+        this.count = count;
+    }
+
+    static TaskShards none() {
+        return new TaskShards(0);
+    }
+
+    void add(Shard shard, HikariDataSource... shardPools) {
+        shards.add(shard);
+        pools.add(List.of(shardPools));
+    }
+
+    /** Shards rows are routed to; all shards, including ones being retired, are in {@link #getShards()}. */
+    public int getCount() {
+        return count;
+    }
+
+    public List<Shard> getShards() {
+        return List.copyOf(shards);
+    }
+
+    /** Closes the pools of a shard beyond {@link #getCount()} and deletes its (emptied) file. */
+    public void retire(Shard shard) {
+        if (shard.index() < count) {
+            throw new IllegalArgumentException("Shard " + shard.index() + " is still in use");
+        }
+        pools.get(shard.index()).forEach(HikariDataSource::close);
+        try {
+            Files.deleteIfExists(shard.file());
+            Files.deleteIfExists(Path.of(shard.file() + "-wal"));
+            Files.deleteIfExists(Path.of(shard.file() + "-shm"));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        pools.forEach(shardPools -> shardPools.forEach(HikariDataSource::close));
+    }
+
+    /** The configured directory, else one next to the main SQLite file, else ./tasks-shards. */
+    static Path directory(Environment env) {
+        String configured = env.getProperty("app.tasks.store.shards.dir");
+        if (configured != null && !configured.isBlank()) {
+            return Paths.get(configured).toAbsolutePath().normalize();
+        }
+        String databasePath = env.getProperty("DATABASE_PATH");
+        if (databasePath != null && !databasePath.isBlank()) {
+            return Paths.get(databasePath + "-shards").toAbsolutePath().normalize();
+        }
+        return Paths.get("tasks-shards").toAbsolutePath().normalize();
+    }
+
+    static Path file(Path dir, int index) {
+        return dir.resolve("tasks-" + index + ".sqlite3");
+    }
+
+    /** One more than the highest shard index with a file in {@code dir}. */
+    static int existingFiles(Path dir) throws IOException {
+        int files = 0;
+        try (Stream<Path> list = Files.list(dir)) {
+            for (Path f : list.toList()) {
+                Matcher m = FILE.matcher(f.getFileName().toString());
+                if (m.matches()) {
+                    files = Math.max(files, Integer.parseInt(m.group(1)) + 1);
+                }
+            }
+        }
+        return files;
+    }
+}
@@ -0,0 +1,76 @@
+package com.wodendev.springbackend.config;
+
+import com.wodendev.springbackend.service.JdbcTaskStore;
+import com.wodendev.springbackend.service.MemoryTaskStore;
+import com.wodendev.springbackend.service.Schema;
+import com.wodendev.springbackend.service.ShardedTaskStore;
+import com.wodendev.springbackend.service.TaskBatchWriter;
+import com.wodendev.springbackend.service.TaskMetrics;
+import com.wodendev.springbackend.service.TaskStore;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.env.Environment;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+@Configuration
+public class TaskStoreConfig {
+
+    /**
+     * {@code app.tasks.store}: "jdbc" (default) keeps tasks in the SQL database,
+     * "memory" serves them from {@link MemoryTaskStore}, "sharded" spreads them over
+     * the SQLite files in {@link TaskShards} with {@link ShardedTaskStore}. The SQL
+     * schema is set up either way, since health checks and startup warm-up run
+     * against it.
+     */
+    @Bean
+    @Lazy(false) // journal replay and shard rebalancing belong to startup, not the first request
+    public TaskStore taskStore(Environment env, JdbcTemplate jdbc, @Qualifier("readJdbcTemplate") JdbcTemplate readJdbc,
+                               Schema schema, TransactionTemplate transactionTemplate, TaskBatchWriter batchWriter,
+                               TaskMetrics taskMetrics, TaskShards taskShards, ApplicationStartup startup) {
+        boolean writeQueue = env.getProperty("app.write-queue.enabled", Boolean.class, false);
+        String engine = env.getProperty("app.tasks.store", "jdbc").trim().toLowerCase(Locale.ROOT);
+        return switch (engine) {
+            case "jdbc" -> new JdbcTaskStore(jdbc, readJdbc, schema, transactionTemplate, batchWriter, env);
+            case "memory" -> {
+                // The write queue batches SQL transactions; the memory store commits each write itself.
+                if (writeQueue) {
+                    throw new IllegalStateException("app.write-queue.enabled requires app.tasks.store=jdbc");
+                }
+                yield new MemoryTaskStore(env, taskMetrics);
+            }
+            case "sharded" -> {
+                // The write queue drains into the main database, not the shards.
+                if (writeQueue) {
+                    throw new IllegalStateException("app.write-queue.enabled requires app.tasks.store=jdbc");
+                }
+                yield shardedStore(env, taskMetrics, taskShards, startup);
+            }
+            default -> throw new IllegalArgumentException("app.tasks.store must be jdbc, memory or sharded, got " + engine);
+        };
+    }
+
+    /** Each shard gets the same schema setup and batch writer as the main database. */
+    private static ShardedTaskStore shardedStore(Environment env, TaskMetrics taskMetrics, TaskShards taskShards,
+                                                 ApplicationStartup startup) {
+        List<ShardedTaskStore.Shard> shards = new ArrayList<>();
+        for (TaskShards.Shard shard : taskShards.getShards()) {
+            Schema schema = new Schema(shard.jdbc(), env, startup);
+            schema.afterPropertiesSet();
+            TaskBatchWriter writer = new TaskBatchWriter(shard.jdbc(), schema, taskMetrics, env);
+            TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(shard.writer()));
+            JdbcTaskStore store = new JdbcTaskStore(shard.jdbc(), shard.readJdbc(), schema, tx, writer, env);
+            shards.add(new ShardedTaskStore.Shard(shard.index(), store, schema, shard.jdbc(), tx,
+                    () -> taskShards.retire(shard)));
+        }
+        return new ShardedTaskStore(shards, taskShards.getCount());
+    }
+}
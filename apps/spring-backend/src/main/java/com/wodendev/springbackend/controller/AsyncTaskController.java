@@ -0,0 +1,137 @@
+package com.wodendev.springbackend.controller;
+
+import com.wodendev.springbackend.entity.Task;
+import com.wodendev.springbackend.service.TaskDbExecutor;
+import com.wodendev.springbackend.service.TaskDbExecutor.Lane;
+import com.wodendev.springbackend.service.TaskService;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The task endpoints of {@link TaskController} under {@code /async}, answered
+ * from {@link TaskDbExecutor}: the servlet thread returns as soon as the call is
+ * queued, and listings, single-task reads and writes each run in their own lane,
+ * so slow searches tie up neither request threads nor the workers findOne needs.
+ * A read that exceeds {@code app.async.timeout} answers 503; writes always
+ * report their outcome. Responses are the same as the synchronous endpoints'.
+ */
+@RestController
+@RequestMapping("/async")
+public class AsyncTaskController {
+    private final TaskService taskService;
+    private final TaskDbExecutor executor;
+
+    public AsyncTaskController(TaskService taskService, TaskDbExecutor executor) {
+        this.taskService = taskService;
+        this.executor = executor;
+    }
+
+    @GetMapping("/tasks")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getTasks(
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "false") boolean includeTotal,
+            @RequestParam(required = false) Integer countLimit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        return executor.submit(Lane.LIST, () -> {
+            Long version = taskService.tableVersion();
+            if (version != null && matches(ifNoneMatch, TaskController.etag(version))) {
+                return AsyncTaskController.<Map<String, Object>>notModified(version);
+            }
+            Map<String, Object> resp;
+            if (cursor != null) {
+                resp = TaskController.cursorResponse(taskService.findAfter(cursor, limit, search, includeTotal));
+                if (version != null) {
+                    resp.put("version", version);
+                }
+            } else {
+                resp = TaskController.pageResponse(taskService.findAll(page, limit, search, countLimit, version),
+                        page, limit, search, countLimit, version);
+            }
+            return withETag(ResponseEntity.ok(), version).body(resp);
+        });
+    }
+
+    @GetMapping("/tasks/{id}")
+    public CompletableFuture<ResponseEntity<Task>> getTask(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        return executor.submit(Lane.POINT, () -> taskService.findOne(id)
+                .map(task -> {
+                    Long version = task.getVersion();
+                    if (version != null && matches(ifNoneMatch, TaskController.etag(version))) {
+                        return AsyncTaskController.<Task>notModified(version);
+                    }
+                    return withETag(ResponseEntity.ok(), version).body(task);
+                })
+                .orElseGet(() -> ResponseEntity.notFound().build()));
+    }
+
+    @PostMapping("/tasks/create")
+    public CompletableFuture<ResponseEntity<Task>> createTask(@RequestBody Task task) {
+        return executor.submit(Lane.WRITE, () -> ResponseEntity.ok(taskService.create(task)));
+    }
+
+    @PutMapping("/tasks/{id}")
+    public CompletableFuture<ResponseEntity<Task>> updateTask(@PathVariable String id, @RequestBody Task task) {
+        return executor.submit(Lane.WRITE, () -> taskService.update(id, task)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build()));
+    }
+
+    @DeleteMapping("/tasks/{id}")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> deleteTask(@PathVariable String id) {
+        return executor.submit(Lane.WRITE, () -> ResponseEntity.ok(Map.<String, Object>of("affected", taskService.remove(id) ? 1 : 0)));
+    }
+
+    @PostMapping("/tasks/batch")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> createTasks(@RequestBody List<Task> tasks) {
+        return executor.submit(Lane.WRITE, () -> ResponseEntity.ok(TaskController.batchResponse(taskService.createAll(tasks))));
+    }
+
+    @PutMapping("/tasks/batch")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> updateTasks(@RequestBody List<Task> tasks) {
+        return executor.submit(Lane.WRITE, () -> ResponseEntity.ok(TaskController.batchResponse(taskService.updateAll(tasks))));
+    }
+
+    @DeleteMapping("/tasks/batch")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> deleteTasks(@RequestBody List<String> ids) {
+        return executor.submit(Lane.WRITE, () -> ResponseEntity.ok(TaskController.batchResponse(taskService.removeAll(ids))));
+    }
+
+    /** If-None-Match is read on the request thread; the request itself is off limits on the pool. */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String c = candidate.trim();
+            if (c.startsWith("W/")) {
+                c = c.substring(2);
+            }
+            if (c.equals("*") || c.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static <T> ResponseEntity<T> notModified(long version) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(TaskController.etag(version)).build();
+    }
+
+    private static ResponseEntity.BodyBuilder withETag(ResponseEntity.BodyBuilder builder, Long version) {
+        return version == null ? builder : builder.eTag(TaskController.etag(version));
+    }
+}
@@ -1,19 +1,42 @@
 package com.wodendev.springbackend.controller;
 
+import com.wodendev.springbackend.service.StartupReadiness;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.HashMap;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/health")
 public class HealthController {
+    private final StartupReadiness readiness;
+
+    public HealthController(StartupReadiness readiness) {
+        this.readiness = readiness;
+    }
+
+    /** 200 once the database is warm (see {@link StartupReadiness}), 503 until then. */
     @GetMapping
-    public Map<String, String> check() {
-        return Map.of(
-                "status", "ok",
-                "message", "Backend is up and running"
-        );
+    public ResponseEntity<Map<String, Object>> check() {
+        Map<String, Object> body = new HashMap<>();
+        if (readiness.failure() != null) {
+            body.put("status", "error");
+            body.put("message", "Database warm-up failed: " + readiness.failure());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(body);
+        }
+        if (!readiness.isReady()) {
+            body.put("status", "starting");
+            body.put("message", "Backend is starting");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(body);
+        }
+        body.put("status", "ok");
+        body.put("message", "Backend is up and running");
+        body.putAll(readiness.details());
+        return ResponseEntity.ok(body);
     }
 }
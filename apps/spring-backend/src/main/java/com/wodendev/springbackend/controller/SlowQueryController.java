@@ -0,0 +1,41 @@
+package com.wodendev.springbackend.controller;
+
+import com.wodendev.springbackend.config.SlowQueryLog;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/slow-queries")
+public class SlowQueryController {
+    private final SlowQueryLog slowQueryLog;
+
+    public SlowQueryController(SlowQueryLog slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    /** The most recent slow statements, newest first. */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> list() {
+        List<SlowQueryLog.Entry> entries = slowQueryLog.entries();
+        Map<String, Object> resp = new HashMap<>();
+        resp.put("enabled", slowQueryLog.isEnabled());
+        resp.put("thresholdMs", slowQueryLog.threshold().toMillis());
+        resp.put("count", entries.size());
+        resp.put("data", entries);
+        return ResponseEntity.ok(resp);
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Map<String, Object>> clear() {
+        slowQueryLog.clear();
+        return ResponseEntity.ok(Map.of("cleared", true));
+    }
+}
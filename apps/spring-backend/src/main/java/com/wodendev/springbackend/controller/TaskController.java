@@ -1,33 +1,113 @@
 package com.wodendev.springbackend.controller;
 
+import com.wodendev.springbackend.dto.BatchItemResult;
+import com.wodendev.springbackend.dto.CursorPage;
 import com.wodendev.springbackend.entity.Task;
+import com.wodendev.springbackend.dto.ImportSummary;
+import com.wodendev.springbackend.dto.TaskChanges;
+import com.wodendev.springbackend.service.TaskChangeFeed;
+import com.wodendev.springbackend.service.TaskImportService;
 import com.wodendev.springbackend.service.TaskService;
 
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.data.domain.Page;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 public class TaskController {
+    private static final String NDJSON = "application/x-ndjson";
+
     private final TaskService taskService;
+    private final TaskImportService taskImportService;
+    private final ObjectMapper objectMapper;
+    private final TaskChangeFeed changeFeed;
+    private final TaskPageJsonWriter pageWriter;
+    private final boolean streamingList;
 
     @Autowired
-    public TaskController(TaskService taskService) {
+    public TaskController(TaskService taskService, TaskImportService taskImportService, ObjectMapper objectMapper,
+                          TaskChangeFeed changeFeed, Environment env) {
         this.taskService = taskService;
+        this.taskImportService = taskImportService;
+        this.objectMapper = objectMapper;
+        this.changeFeed = changeFeed;
+        this.pageWriter = new TaskPageJsonWriter(objectMapper);
+        this.streamingList = env.getProperty("app.list.streaming.enabled", Boolean.class, false) && pageWriter.isSupported();
     }
 
     @GetMapping("/tasks")
     public ResponseEntity<Map<String, Object>> getTasks(
             @RequestParam(required = false) Integer page,
             @RequestParam(required = false) Integer limit,
-            @RequestParam(required = false) String search
-    ) {
-        Page<Task> result = taskService.findAll(page, limit, search);
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "false") boolean includeTotal,
+            @RequestParam(required = false) Integer countLimit,
+            WebRequest webRequest,
+            HttpServletResponse response
+    ) throws IOException {
+        // Every list response is a function of the URL and the table's change version,
+        // so an unchanged version answers 304 before any page query or serialization.
+        Long version = taskService.tableVersion();
+        if (version != null && webRequest.checkNotModified(etag(version))) {
+            return null;
+        }
+
+        // Passing "cursor" (empty for the first page) switches to keyset pagination.
+        if (cursor != null) {
+            Map<String, Object> resp = cursorResponse(taskService.findAfter(cursor, limit, search, includeTotal));
+            if (version != null) {
+                resp.put("version", version);
+            }
+            return ResponseEntity.ok(resp);
+        }
 
+        if (streamingList && countLimit == null) {
+            // Same bytes as below, written straight from the store rows (see TaskPageJsonWriter).
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            try (TaskPageJsonWriter.Sink sink = pageWriter.open(response.getOutputStream(), version)) {
+                try {
+                    taskService.streamPage(page, limit, search, sink);
+                } catch (RuntimeException ex) {
+                    sink.abort();
+                    if (!response.isCommitted()) {
+                        // Nothing reached the client: the usual error response replaces the partial page.
+                        response.resetBuffer();
+                    }
+                    // Once committed, GlobalExceptionHandler rethrows and the connection is dropped.
+                    throw ex;
+                }
+            }
+            return null;
+        }
+
+        Page<Task> result = taskService.findAll(page, limit, search, countLimit, version);
+        return ResponseEntity.ok(pageResponse(result, page, limit, search, countLimit, version));
+    }
+
+    static Map<String, Object> pageResponse(Page<Task> result, Integer page, Integer limit, String search,
+                                            Integer countLimit, Long version) {
         Map<String, Object> resp = new HashMap<>();
         resp.put("data", result.getContent());
         resp.put("total", result.getTotalElements());
@@ -36,15 +116,109 @@ public class TaskController {
         resp.put("page", currentPage);
         resp.put("limit", pageSize);
         resp.put("totalPages", result.getTotalPages());
+        if (version != null) {
+            // Starting point for GET /tasks/changes?since=
+            resp.put("version", version);
+        }
+        if (countLimit != null && countLimit > 0 && search != null && !search.isBlank()) {
+            // "total" reached countLimit: there are at least that many matches.
+            resp.put("totalCapped", result.getTotalElements() >= countLimit);
+        }
+        return resp;
+    }
 
-        return ResponseEntity.ok(resp);
+    static Map<String, Object> cursorResponse(CursorPage<Task> result) {
+        Map<String, Object> resp = new HashMap<>();
+        resp.put("data", result.data());
+        resp.put("nextCursor", result.nextCursor());
+        resp.put("limit", result.limit());
+        if (result.total() != null) {
+            resp.put("total", result.total());
+        }
+        return resp;
+    }
+
+    /**
+     * Streams all tasks as newline-delimited JSON. {@code updatedSince}
+     * (ISO-8601 date or date-time) limits the export to rows updated at or after it.
+     */
+    @GetMapping("/tasks/export")
+    public void exportTasks(
+            @RequestParam(required = false) String updatedSince,
+            HttpServletResponse response
+    ) throws IOException {
+        LocalDateTime since = parseUpdatedSince(updatedSince);
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        OutputStream out = response.getOutputStream();
+        ObjectWriter writer = objectMapper.writer();
+        taskService.exportAll(since, task -> {
+            try {
+                out.write(writer.writeValueAsBytes(task));
+                out.write('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        out.flush();
+    }
+
+    /**
+     * Server-Sent Events for task mutations: "created", "updated" and "deleted"
+     * events whose id is "{epoch}-{change sequence number}". Resumes after the
+     * Last-Event-ID header (sent by EventSource on reconnect) or {@code since};
+     * the first event is "ready", or "reset" when the missed changes are no
+     * longer available and the client should refetch.
+     */
+    @GetMapping(value = "/tasks/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter taskEvents(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @RequestParam(required = false) Long since
+    ) {
+        return changeFeed.subscribe(lastEventId, since);
+    }
+
+    private static LocalDateTime parseUpdatedSince(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String v = value.trim();
+        try {
+            return v.length() == 10 ? LocalDate.parse(v).atStartOfDay() : LocalDateTime.parse(v.replace(' ', 'T'));
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("updatedSince must be an ISO-8601 date or date-time");
+        }
+    }
+
+    /**
+     * Delta sync: tasks written ("upsert") and deleted ("delete") after change
+     * version {@code since}, oldest first. Start with since=0 or the version of a
+     * full listing; keep calling with the returned version while hasMore is true.
+     */
+    @GetMapping("/tasks/changes")
+    public ResponseEntity<TaskChanges> getChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return ResponseEntity.ok(taskService.changesSince(since, limit));
     }
 
     @GetMapping("/tasks/{id}")
-    public ResponseEntity<Task> getTask(@PathVariable String id) {
-        return taskService.findOne(id)
-                .map(ResponseEntity::ok)
-                .orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<Task> getTask(@PathVariable String id, WebRequest webRequest) {
+        Optional<Task> task = taskService.findOne(id);
+        if (task.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Long version = task.get().getVersion();
+        if (version != null && webRequest.checkNotModified(etag(version))) {
+            return null;
+        }
+        return ResponseEntity.ok(task.get());
+    }
+
+    static String etag(long version) {
+        return "\"" + version + "\"";
     }
 
     @PostMapping("/tasks/create")
@@ -66,4 +240,43 @@ public class TaskController {
         Map<String, Object> resp = Map.of("affected", removed ? 1 : 0);
         return ResponseEntity.ok(resp);
     }
+
+    @PostMapping("/tasks/batch")
+    public ResponseEntity<Map<String, Object>> createTasks(@RequestBody List<Task> tasks) {
+        return ResponseEntity.ok(batchResponse(taskService.createAll(tasks)));
+    }
+
+    @PutMapping("/tasks/batch")
+    public ResponseEntity<Map<String, Object>> updateTasks(@RequestBody List<Task> tasks) {
+        return ResponseEntity.ok(batchResponse(taskService.updateAll(tasks)));
+    }
+
+    @DeleteMapping("/tasks/batch")
+    public ResponseEntity<Map<String, Object>> deleteTasks(@RequestBody List<String> ids) {
+        return ResponseEntity.ok(batchResponse(taskService.removeAll(ids)));
+    }
+
+    static Map<String, Object> batchResponse(List<BatchItemResult> results) {
+        long affected = results.stream()
+                .filter(r -> !BatchItemResult.INVALID.equals(r.status()) && !BatchItemResult.NOT_FOUND.equals(r.status()))
+                .count();
+        Map<String, Object> resp = new HashMap<>();
+        resp.put("results", results);
+        resp.put("affected", affected);
+        return resp;
+    }
+
+    /**
+     * Imports a streamed NDJSON (default) or CSV body. The format comes from the
+     * {@code format} parameter or, failing that, the Content-Type header.
+     */
+    @PostMapping("/tasks/import")
+    public ResponseEntity<ImportSummary> importTasks(
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = "Content-Type", required = false) String contentType,
+            InputStream body
+    ) throws IOException {
+        TaskImportService.Format resolved = TaskImportService.resolveFormat(format, contentType);
+        return ResponseEntity.ok(taskImportService.importStream(body, resolved));
+    }
 }
@@ -0,0 +1,261 @@
+package com.wodendev.springbackend.controller;
+
+import com.wodendev.springbackend.entity.Task;
+import com.wodendev.springbackend.service.TaskService;
+
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.SerializableString;
+import tools.jackson.core.StreamWriteFeature;
+import tools.jackson.core.io.SerializedString;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the GET /tasks offset-page response straight from the store's rows with a
+ * streaming generator, skipping the Task objects, the Page and the HashMap
+ * envelope of the regular path.
+ *
+ * The byte layout is not hand-written: at construction the application's own
+ * ObjectMapper serializes a sample envelope and sample tasks, and the property
+ * order and null handling it produces are recorded as pre-encoded names. If a
+ * Task property appears that this writer cannot fill from the page query,
+ * {@link #isSupported()} is false and callers keep the regular path.
+ */
+public class TaskPageJsonWriter {
+    private enum Field { ID, TEXT, DAY, REMINDER, NULL }
+
+    /** {@code writeNull}: whether the mapper writes this property when it is null. */
+    private record Slot(SerializableString name, Field field, boolean writeNull) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final boolean supported;
+    private final List<SerializableString> envelope;
+    private final List<SerializableString> envelopeWithVersion;
+    private final Slot[] row;
+
+    public TaskPageJsonWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.envelope = envelopeLayout(objectMapper, false);
+        this.envelopeWithVersion = envelopeLayout(objectMapper, true);
+        this.row = rowLayout(objectMapper);
+        this.supported = row != null;
+    }
+
+    public boolean isSupported() {
+        return supported;
+    }
+
+    /**
+     * A sink for {@link TaskService#streamPage}; {@code version} is omitted when null, as in the regular path.
+     * The generator neither closes {@code out} nor completes open JSON on close, so a page that fails
+     * midway is never made to look finished; see {@link Sink#abort()}.
+     */
+    public Sink open(OutputStream out, Long version) {
+        Guard guard = new Guard(out);
+        JsonGenerator g = objectMapper.writer()
+                .without(StreamWriteFeature.AUTO_CLOSE_TARGET)
+                .without(StreamWriteFeature.AUTO_CLOSE_CONTENT)
+                .createGenerator(guard);
+        return new Sink(g, guard, version);
+    }
+
+    /** Drops writes once aborted, so closing the generator cannot flush a failed page's buffered bytes. */
+    private static final class Guard extends FilterOutputStream {
+        private boolean aborted;
+
+        Guard(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (!aborted) {
+                out.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (!aborted) {
+                out.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (!aborted) {
+                out.flush();
+            }
+        }
+    }
+
+    public final class Sink implements TaskService.PageSink, AutoCloseable {
+        private final JsonGenerator g;
+        private final Guard guard;
+        private final Long version;
+        private final List<SerializableString> layout;
+        private long total;
+        private int page;
+        private int limit;
+        // Position in layout just after "data".
+        private int resume;
+
+        Sink(JsonGenerator g, Guard guard, Long version) {
+            this.g = g;
+            this.guard = guard;
+            this.version = version;
+            this.layout = version != null ? envelopeWithVersion : envelope;
+        }
+
+        @Override
+        public void begin(long total, int page, int limit) {
+            this.total = total;
+            this.page = page;
+            this.limit = limit;
+            g.writeStartObject();
+            resume = writeFields(0);
+            g.writeStartArray();
+        }
+
+        @Override
+        public void row(String id, String text, String day, boolean reminder) {
+            g.writeStartObject();
+            for (Slot slot : row) {
+                switch (slot.field()) {
+                    case ID -> writeString(slot, id);
+                    case TEXT -> writeString(slot, text);
+                    case DAY -> writeString(slot, day);
+                    case REMINDER -> {
+                        g.writeName(slot.name());
+                        g.writeBoolean(reminder);
+                    }
+                    case NULL -> {
+                        g.writeName(slot.name());
+                        g.writeNull();
+                    }
+                }
+            }
+            g.writeEndObject();
+        }
+
+        @Override
+        public void end() {
+            g.writeEndArray();
+            writeFields(resume);
+            g.writeEndObject();
+            g.flush();
+        }
+
+        /** Discards anything not yet written to the response; call before {@link #close()} when the page failed. */
+        public void abort() {
+            guard.aborted = true;
+        }
+
+        @Override
+        public void close() {
+            g.close();
+        }
+
+        /** Writes envelope fields from {@code from} up to and including the "data" name; returns where it stopped. */
+        private int writeFields(int from) {
+            for (int i = from; i < layout.size(); i++) {
+                SerializableString name = layout.get(i);
+                g.writeName(name);
+                switch (name.getValue()) {
+                    case "data" -> {
+                        return i + 1;
+                    }
+                    case "total" -> g.writeNumber(total);
+                    case "page" -> g.writeNumber(page);
+                    case "limit" -> g.writeNumber(limit);
+                    // Same rounding as PageImpl.getTotalPages().
+                    case "totalPages" -> g.writeNumber((int) Math.ceil((double) total / (double) limit));
+                    case "version" -> g.writeNumber(version);
+                    default -> throw new IllegalStateException("Unexpected envelope field " + name.getValue());
+                }
+            }
+            return layout.size();
+        }
+
+        private void writeString(Slot slot, String value) {
+            if (value == null) {
+                if (slot.writeNull()) {
+                    g.writeName(slot.name());
+                    g.writeNull();
+                }
+                return;
+            }
+            g.writeName(slot.name());
+            g.writeString(value);
+        }
+    }
+
+    /** Key order the mapper gives the controller's HashMap envelope (insertion order matters for HashMap). */
+    private static List<SerializableString> envelopeLayout(ObjectMapper mapper, boolean withVersion) {
+        Map<String, Object> sample = new HashMap<>();
+        sample.put("data", List.of());
+        sample.put("total", 0L);
+        sample.put("page", 1);
+        sample.put("limit", 1);
+        sample.put("totalPages", 0);
+        if (withVersion) {
+            sample.put("version", 0L);
+        }
+        List<SerializableString> names = new ArrayList<>();
+        for (String key : keys(mapper, sample)) {
+            names.add(new SerializedString(key));
+        }
+        return List.copyOf(names);
+    }
+
+    /** Task property order and null handling as the mapper writes them; null if a property is unknown here. */
+    private static Slot[] rowLayout(ObjectMapper mapper) {
+        Task full = new Task();
+        full.setId("id");
+        full.setText("text");
+        full.setDay("day");
+        full.setReminder(true);
+        full.setCreatedAt(LocalDateTime.now());
+        full.setUpdatedAt(LocalDateTime.now());
+        full.setVersion(1L);
+        List<String> writtenWhenNull = keys(mapper, new Task());
+
+        List<Slot> slots = new ArrayList<>();
+        for (String name : keys(mapper, full)) {
+            Field field = switch (name) {
+                case "id" -> Field.ID;
+                case "text" -> Field.TEXT;
+                case "day" -> Field.DAY;
+                case "reminder" -> Field.REMINDER;
+                // Not selected by the page query, so always null in list rows.
+                case "createdAt", "updatedAt", "version" -> Field.NULL;
+                default -> null;
+            };
+            if (field == null) {
+                return null;
+            }
+            boolean writeNull = writtenWhenNull.contains(name);
+            if (field == Field.NULL && !writeNull) {
+                continue;
+            }
+            slots.add(new Slot(new SerializedString(name), field, writeNull));
+        }
+        return slots.toArray(new Slot[0]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> keys(ObjectMapper mapper, Object value) {
+        Map<String, Object> parsed = mapper.readValue(mapper.writeValueAsString(value), LinkedHashMap.class);
+        return new ArrayList<>(parsed.keySet());
+    }
+}
@@ -0,0 +1,21 @@
+package com.wodendev.springbackend.dto;
+
+/**
+ * Outcome of one element of a bulk request, in request order. {@code message}
+ * explains why an element was rejected and is null otherwise.
+ */
+public record BatchItemResult(int index, String id, String status, String message) {
+    public static final String CREATED = "created";
+    public static final String UPDATED = "updated";
+    public static final String DELETED = "deleted";
+    public static final String NOT_FOUND = "not_found";
+    public static final String INVALID = "invalid";
+
+    public static BatchItemResult of(int index, String id, String status) {
+        return new BatchItemResult(index, id, status, null);
+    }
+
+    public static BatchItemResult invalid(int index, String id, String message) {
+        return new BatchItemResult(index, id, INVALID, message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.wodendev.springbackend.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is null on the last
+ * page; {@code total} is only filled in when the caller asked for it.
+ */
+public record CursorPage<T>(List<T> data, String nextCursor, int limit, Long total) {
+}
@@ -0,0 +1,12 @@
+package com.wodendev.springbackend.dto;
+
+import java.util.List;
+
+/**
+ * Result of a bulk import. {@code errors} lists rejected lines up to a
+ * configured cap; {@code rejected} always holds the full count.
+ */
+public record ImportSummary(long lines, long imported, long rejected, List<RejectedLine> errors) {
+    public record RejectedLine(long line, String reason) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.wodendev.springbackend.dto;
+
+import com.wodendev.springbackend.entity.Task;
+
+import java.util.List;
+
+/**
+ * Rows written and deleted after a change version, oldest first. Pass
+ * {@code version} back as {@code since} for the next call; {@code hasMore} means
+ * the limit cut the list short and the caller should ask again right away.
+ */
+public record TaskChanges(List<Change> changes, long version, boolean hasMore) {
+    public static final String UPSERT = "upsert";
+    public static final String DELETE = "delete";
+
+    /** {@code task} is null for deletes. */
+    public record Change(String type, long version, String id, Task task) {
+    }
+}
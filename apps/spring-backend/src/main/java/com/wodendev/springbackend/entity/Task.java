@@ -1,5 +1,7 @@
 package com.wodendev.springbackend.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.*;
 import lombok.Data;
 
@@ -32,4 +34,12 @@ public class Task {
     @UpdateTimestamp
     @Column(name = "updatedAt")
     private LocalDateTime updatedAt;
+
+    /**
+     * Change version stamped by the database on every write; see Schema. Not part
+     * of the JSON body: responses carry it in the ETag, /tasks/changes per change.
+     */
+    @JsonIgnore
+    @Column(name = "row_version", insertable = false, updatable = false)
+    private Long version;
 }
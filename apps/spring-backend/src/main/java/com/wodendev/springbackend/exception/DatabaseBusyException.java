@@ -0,0 +1,20 @@
+package com.wodendev.springbackend.exception;
+
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * Thrown instead of handing out a connection when too many callers are already
+ * waiting for one. Reaches clients as 503 with a Retry-After header.
+ */
+public class DatabaseBusyException extends SQLTransientConnectionException {
+    private final String pool;
+
+    public DatabaseBusyException(String pool, String message) {
+        super(message);
+        this.pool = pool;
+    }
+
+    public String getPool() {
+        return pool;
+    }
+}
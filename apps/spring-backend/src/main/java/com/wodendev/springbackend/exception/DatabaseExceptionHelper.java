@@ -1,6 +1,9 @@
 package com.wodendev.springbackend.exception;
 
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
 
 public final class DatabaseExceptionHelper {
     private DatabaseExceptionHelper() {
@@ -11,6 +14,9 @@ public final class DatabaseExceptionHelper {
             String operation,
             DataAccessException ex
     ) {
+        if (isDatabaseBusy(ex)) {
+            return new DatabaseOperationException("DB_BUSY", operation, ex);
+        }
         if (isConnectionFailed(ex)) {
             return new DatabaseOperationException("DB_CONNECTION_FAILED", operation, ex);
         }
@@ -28,6 +34,38 @@ public final class DatabaseExceptionHelper {
         return new DatabaseInitializationException("DB_MIGRATION_FAILED", databasePath, message);
     }
 
+    /** True when the failure was a connection request shed by the concurrency limiter. */
+    public static boolean isDatabaseBusy(Throwable ex) {
+        for (Throwable cur = ex; cur != null; cur = cur.getCause() == cur ? null : cur.getCause()) {
+            if (cur instanceof DatabaseBusyException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * True when a row broke a constraint (duplicate id, NOT NULL, ...), so the same
+     * statement without that row can succeed. Busy, locked and connection failures
+     * are not attributable to a row.
+     */
+    public static boolean isConstraintViolation(Throwable ex) {
+        for (Throwable cur = ex; cur != null; cur = cur.getCause() == cur ? null : cur.getCause()) {
+            if (cur instanceof DataIntegrityViolationException) {
+                return true;
+            }
+            if (cur instanceof SQLException sql) {
+                // SQLSTATE class 23 (H2 and most drivers); sqlite-jdbc names the result code instead.
+                String state = sql.getSQLState();
+                String message = sql.getMessage();
+                if ((state != null && state.startsWith("23")) || (message != null && message.contains("SQLITE_CONSTRAINT"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     private static boolean isDatabaseLocked(DataAccessException ex) {
         Throwable cause = ex.getMostSpecificCause();
         String message = cause == null ? ex.getMessage() : cause.getMessage();
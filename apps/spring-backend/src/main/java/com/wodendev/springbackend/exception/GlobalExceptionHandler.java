@@ -1,10 +1,14 @@
 package com.wodendev.springbackend.exception;
 
+import com.wodendev.springbackend.service.TaskMetrics;
+
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.env.Environment;
 import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -13,6 +17,7 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import java.time.OffsetDateTime;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.TimeoutException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -20,13 +25,20 @@ public class GlobalExceptionHandler {
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
     private final Environment environment;
+    private final TaskMetrics taskMetrics;
 
-    public GlobalExceptionHandler(Environment environment) {
+    public GlobalExceptionHandler(Environment environment, TaskMetrics taskMetrics) {
         this.environment = environment;
+        this.taskMetrics = taskMetrics;
     }
 
     @ExceptionHandler(DataAccessException.class)
-    public ResponseEntity<Map<String, Object>> handleDataAccess(DataAccessException ex, HttpServletRequest request) {
+    public ResponseEntity<Map<String, Object>> handleDataAccess(DataAccessException ex, HttpServletRequest request,
+                                                                HttpServletResponse response) throws Exception {
+        abortIfCommitted(ex, request, response);
+        if (DatabaseExceptionHelper.isDatabaseBusy(ex)) {
+            return busyResponse(ex, request, Map.of("errorCode", "DB_BUSY"));
+        }
         // Database/SQL issues are the most common root cause for 500s here.
         return buildErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR, ex, request, "Database error");
     }
@@ -34,8 +46,17 @@ public class GlobalExceptionHandler {
         @ExceptionHandler(DatabaseOperationException.class)
         public ResponseEntity<Map<String, Object>> handleDatabaseOperation(
             DatabaseOperationException ex,
-            HttpServletRequest request
-        ) {
+            HttpServletRequest request,
+            HttpServletResponse response
+        ) throws Exception {
+        abortIfCommitted(ex, request, response);
+        if ("DB_BUSY".equals(ex.getErrorCode())) {
+            return busyResponse(ex, request, Map.of(
+                "errorCode", ex.getErrorCode(),
+                "operation", ex.getOperation()
+            ));
+        }
+        taskMetrics.recordError(ex.getErrorCode());
         return buildErrorResponse(
             HttpStatus.INTERNAL_SERVER_ERROR,
             ex,
@@ -65,16 +86,43 @@ public class GlobalExceptionHandler {
             );
             }
 
+    /** An /async read that outlived app.async.timeout (writes have none); safe to retry, like a busy database. */
+    @ExceptionHandler(TimeoutException.class)
+    public ResponseEntity<Map<String, Object>> handleTimeout(TimeoutException ex, HttpServletRequest request) {
+        return busyResponse(ex, request, Map.of("errorCode", "DB_TIMEOUT"));
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<Map<String, Object>> handleBadRequest(IllegalArgumentException ex, HttpServletRequest request) {
         return buildErrorResponse(HttpStatus.BAD_REQUEST, ex, request, "Bad request");
     }
 
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<Map<String, Object>> handleGeneric(Exception ex, HttpServletRequest request) {
+    public ResponseEntity<Map<String, Object>> handleGeneric(Exception ex, HttpServletRequest request,
+                                                             HttpServletResponse response) throws Exception {
+        abortIfCommitted(ex, request, response);
+        // e.g. a transaction that could not get its connection
+        if (DatabaseExceptionHelper.isDatabaseBusy(ex)) {
+            return busyResponse(ex, request, Map.of("errorCode", "DB_BUSY"));
+        }
         return buildErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR, ex, request, "Internal server error");
     }
 
+    /**
+     * A streamed response (GET /tasks with app.list.streaming.enabled) that fails
+     * after its status and part of its body went out cannot become an error
+     * response; appending one would hand the client a malformed 200. Rethrowing
+     * leaves the exception to the container, which drops the connection instead.
+     */
+    private static void abortIfCommitted(Exception ex, HttpServletRequest request, HttpServletResponse response)
+            throws Exception {
+        if (response.isCommitted()) {
+            logger.error("Failed after the response was committed, aborting {} {}", request.getMethod(),
+                    request.getRequestURI(), ex);
+            throw ex;
+        }
+    }
+
         private ResponseEntity<Map<String, Object>> buildErrorResponse(
             HttpStatus status,
             Exception ex,
@@ -84,6 +132,22 @@ public class GlobalExceptionHandler {
         return buildErrorResponse(status, ex, request, error, Map.of());
         }
 
+    /**
+     * 503 for requests shed by the database concurrency limiter or timed out on the
+     * async pool. This is expected under overload, so it is logged without a stack trace.
+     */
+    private ResponseEntity<Map<String, Object>> busyResponse(
+            Exception ex,
+            HttpServletRequest request,
+            Map<String, Object> extra
+    ) {
+        logger.warn("Database busy, rejecting {} {}", request.getMethod(), request.getRequestURI());
+        taskMetrics.recordError((String) extra.get("errorCode"));
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorBody(HttpStatus.SERVICE_UNAVAILABLE, ex, request, "Database busy", extra));
+    }
+
         private ResponseEntity<Map<String, Object>> buildErrorResponse(
             HttpStatus status,
             Exception ex,
@@ -93,7 +157,16 @@ public class GlobalExceptionHandler {
         ) {
         // Always log full details server-side.
         logger.error("Unhandled exception for {} {}", request.getMethod(), request.getRequestURI(), ex);
+        return ResponseEntity.status(status).body(errorBody(status, ex, request, error, extra));
+        }
 
+        private Map<String, Object> errorBody(
+            HttpStatus status,
+            Exception ex,
+            HttpServletRequest request,
+            String error,
+            Map<String, Object> extra
+        ) {
         Map<String, Object> body = new LinkedHashMap<>();
         body.put("timestamp", OffsetDateTime.now().toString());
         body.put("status", status.value());
@@ -118,7 +191,7 @@ public class GlobalExceptionHandler {
             body.put("trace", shortStackTrace(ex, 25));
         }
 
-        return ResponseEntity.status(status).body(body);
+        return body;
     }
 
     private boolean isDevProfile() {
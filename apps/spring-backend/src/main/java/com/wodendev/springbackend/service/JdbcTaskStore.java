@@ -0,0 +1,294 @@
+package com.wodendev.springbackend.service;
+
+import com.wodendev.springbackend.dto.TaskChanges;
+import com.wodendev.springbackend.entity.Task;
+
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The SQL engine ({@code app.tasks.store=jdbc}): the tasks table on SQLite or H2,
+ * through the statements {@link TaskSql} prepares for the connected database.
+ * Writes go to the writer pool, reads to the reader pool.
+ */
+public class JdbcTaskStore implements TaskStore {
+    private static final DateTimeFormatter DB_TIMESTAMP = new DateTimeFormatterBuilder()
+            .appendPattern("yyyy-MM-dd HH:mm:ss")
+            .appendFraction(ChronoField.NANO_OF_SECOND, 0, 9, true)
+            .toFormatter();
+    private static final Pattern SEARCH_TOKEN = Pattern.compile("[\\p{L}\\p{N}]+");
+    private static final RowMapper<Task> ROW_MAPPER = new RowMapper<>() {
+        @Override
+        public Task mapRow(ResultSet rs, int rowNum) throws SQLException {
+            Task t = new Task();
+            t.setId(rs.getString("id"));
+            t.setText(rs.getString("text"));
+            t.setDay(rs.getString("day"));
+            t.setReminder(rs.getBoolean("reminder"));
+            return t;
+        }
+    };
+    private static final RowMapper<Task> VERSIONED_ROW_MAPPER = (rs, rowNum) -> {
+        Task t = ROW_MAPPER.mapRow(rs, rowNum);
+        t.setVersion(rs.getLong("row_version"));
+        return t;
+    };
+
+    private final JdbcTemplate jdbc;
+    private final JdbcTemplate readJdbc;
+    private final Schema schema;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskBatchWriter batchWriter;
+    private final Environment env;
+
+    public JdbcTaskStore(JdbcTemplate jdbc, JdbcTemplate readJdbc, Schema schema,
+                         TransactionTemplate transactionTemplate, TaskBatchWriter batchWriter, Environment env) {
+        this.jdbc = jdbc;
+        this.readJdbc = readJdbc;
+        this.schema = schema;
+        this.transactionTemplate = transactionTemplate;
+        this.batchWriter = batchWriter;
+        this.env = env;
+    }
+
+    @Override
+    public void insert(Task task) {
+        jdbc.update(schema.getSql().insert(), task.getId(), task.getText(), task.getDay(), task.isReminder() ? 1 : 0);
+    }
+
+    @Override
+    public void insertAll(List<Task> tasks) {
+        transactionTemplate.executeWithoutResult(status -> batchWriter.insert(tasks));
+    }
+
+    @Override
+    public boolean update(String id, Task task) {
+        return jdbc.update(schema.getSql().update(), task.getText(), task.getDay(), task.isReminder() ? 1 : 0, id) > 0;
+    }
+
+    @Override
+    public int[] updateAll(List<Task> tasks) {
+        return transactionTemplate.execute(status -> batchWriter.update(tasks));
+    }
+
+    @Override
+    public boolean delete(String id) {
+        return jdbc.update(schema.getSql().delete(), id) > 0;
+    }
+
+    @Override
+    public int[] deleteAll(List<String> ids) {
+        return transactionTemplate.execute(status -> batchWriter.delete(ids));
+    }
+
+    @Override
+    public List<String> deleteByText(String text) {
+        // Collect the ids in the same transaction so exactly the deleted rows are reported.
+        return transactionTemplate.execute(status -> {
+            TaskSql sql = schema.getSql();
+            List<String> matched = jdbc.queryForList(sql.selectIdsByText(), String.class, text);
+            if (!matched.isEmpty()) {
+                jdbc.update(sql.deleteByText(), text);
+            }
+            return matched;
+        });
+    }
+
+    @Override
+    public Optional<Task> findOne(String id) {
+        List<Task> list = readJdbc.query(schema.getSql().findOne(), findOneMapper(schema), id);
+        return list.isEmpty() ? Optional.empty() : Optional.of(list.get(0));
+    }
+
+    /** Maps {@link TaskSql#findOne} rows. */
+    static RowMapper<Task> findOneMapper(Schema schema) {
+        return schema.isRowVersioned() ? VERSIONED_ROW_MAPPER : ROW_MAPPER;
+    }
+
+    @Override
+    public long count(String search, Integer countLimit) {
+        TextFilter filter = textFilter(search);
+        Long total;
+        if (filter == null) {
+            total = readJdbc.queryForObject(schema.getSql().count(), Long.class);
+        } else if (countLimit != null) {
+            total = readJdbc.queryForObject(filter.sql().cappedCount(), Long.class, filter.param(), countLimit);
+        } else {
+            total = readJdbc.queryForObject(filter.sql().count(), Long.class, filter.param());
+        }
+        return total != null ? total : 0L;
+    }
+
+    @Override
+    public List<Task> page(String search, int limit, int offset) {
+        TextFilter filter = textFilter(search);
+        if (filter == null) {
+            return readJdbc.query(schema.getSql().page(), ROW_MAPPER, limit, offset);
+        }
+        return readJdbc.query(filter.sql().page(), ROW_MAPPER, filter.param(), limit, offset);
+    }
+
+    @Override
+    public void page(String search, int limit, int offset, TaskService.PageSink sink) {
+        TextFilter filter = textFilter(search);
+        RowCallbackHandler rows = rs -> sink.row(rs.getString(1), rs.getString(2), rs.getString(3), rs.getBoolean(4));
+        if (filter == null) {
+            readJdbc.query(schema.getSql().page(), rows, limit, offset);
+        } else {
+            readJdbc.query(filter.sql().page(), rows, filter.param(), limit, offset);
+        }
+    }
+
+    /** Rows whose sort column is NULL are listed after all others. */
+    @Override
+    public List<KeyedTask> seek(TaskCursor after, String search, int fetch) {
+        TextFilter filter = textFilter(search);
+        boolean keyed = schema.getSql().sortColumn() != null;
+
+        if (!keyed) {
+            return after == null
+                    ? seek(keyed, filter, TaskSql.Seek.FIRST, fetch)
+                    : seek(keyed, filter, TaskSql.Seek.AFTER, fetch, after.id());
+        }
+        if (after != null && after.sortKey() == null) {
+            return seek(keyed, filter, TaskSql.Seek.NULLS_AFTER, fetch, after.id());
+        }
+        List<KeyedTask> rows = after == null
+                ? seek(keyed, filter, TaskSql.Seek.FIRST, fetch)
+                : seek(keyed, filter, TaskSql.Seek.AFTER, fetch, after.sortKey(), after.sortKey(), after.id());
+        if (rows.size() < fetch) {
+            rows = new ArrayList<>(rows);
+            rows.addAll(seek(keyed, filter, TaskSql.Seek.NULLS, fetch - rows.size()));
+        }
+        return rows;
+    }
+
+    private List<KeyedTask> seek(boolean keyed, TextFilter filter, TaskSql.Seek seek, int fetch, Object... seekParams) {
+        List<Object> params = new ArrayList<>(seekParams.length + 2);
+        if (filter != null) {
+            params.add(filter.param());
+        }
+        params.addAll(List.of(seekParams));
+        params.add(fetch);
+
+        String sql = schema.getSql().seek(filter == null ? null : filter.sql(), seek);
+        return readJdbc.query(sql, (rs, rowNum) -> new KeyedTask(
+                ROW_MAPPER.mapRow(rs, rowNum),
+                keyed ? rs.getString("sort_key") : null
+        ), params.toArray());
+    }
+
+    /** A search term bound to the precomputed statements of the index that serves it. */
+    private record TextFilter(TaskSql.Search sql, String param) {
+    }
+
+    private TextFilter textFilter(String search) {
+        if (search == null || search.trim().isEmpty()) {
+            return null;
+        }
+        List<String> tokens = new ArrayList<>();
+        Matcher m = SEARCH_TOKEN.matcher(search);
+        while (m.find()) {
+            tokens.add(m.group());
+        }
+
+        TaskSql.Search fullText = schema.getSql().fullText();
+        if (fullText != null && !tokens.isEmpty()) {
+            if (fullText.mode() == TaskSql.SearchMode.FTS5) {
+                // Every token must match, either whole or as a prefix ("tas" finds "task").
+                StringBuilder match = new StringBuilder();
+                for (String token : tokens) {
+                    if (match.length() > 0) {
+                        match.append(' ');
+                    }
+                    match.append('"').append(token).append("\"*");
+                }
+                return new TextFilter(fullText, match.toString());
+            }
+            // H2's native index matches whole words only; all words must be present.
+            return new TextFilter(fullText, String.join(" ", tokens));
+        }
+
+        return new TextFilter(schema.getSql().like(), "%" + search.trim() + "%");
+    }
+
+    /** Reads off a forward-only cursor, so memory use does not depend on table size. */
+    @Override
+    public void export(LocalDateTime updatedSince, Consumer<Task> sink) {
+        TaskSql statements = schema.getSql();
+        if (updatedSince != null && statements.exportSince() == null) {
+            throw new IllegalArgumentException("The tasks table has no updatedAt column");
+        }
+        String sql = updatedSince != null ? statements.exportSince() : statements.export();
+        int fetchSize = env.getProperty("app.export.fetch-size", Integer.class, 500);
+
+        readJdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            if (updatedSince != null) {
+                // Bound as text: SQLite stores CURRENT_TIMESTAMP as 'yyyy-MM-dd HH:mm:ss' strings.
+                ps.setString(1, DB_TIMESTAMP.format(updatedSince));
+            }
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            Task t = ROW_MAPPER.mapRow(rs, 0);
+            t.setCreatedAt(parseTimestamp(rs.getString("created_at")));
+            t.setUpdatedAt(parseTimestamp(rs.getString("updated_at")));
+            sink.accept(t);
+        });
+    }
+
+    private static LocalDateTime parseTimestamp(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value.trim().replace(' ', 'T'));
+        } catch (DateTimeParseException ex) {
+            return null;
+        }
+    }
+
+    @Override
+    public Long tableVersion() {
+        String sql = schema.getSql().tableVersion();
+        if (sql == null) {
+            return null;
+        }
+        Long version = readJdbc.queryForObject(sql, Long.class);
+        return version != null ? version : 0L;
+    }
+
+    @Override
+    public List<TaskChanges.Change> changedSince(long since, long upTo, int limit) {
+        return readJdbc.query(schema.getSql().changedSince(), (rs, n) -> {
+            Task t = VERSIONED_ROW_MAPPER.mapRow(rs, n);
+            return new TaskChanges.Change(TaskChanges.UPSERT, t.getVersion(), t.getId(), t);
+        }, since, upTo, limit);
+    }
+
+    @Override
+    public List<TaskChanges.Change> deletedSince(long since, long upTo, int limit) {
+        return readJdbc.query(schema.getSql().deletedSince(), (rs, n) -> new TaskChanges.Change(
+                TaskChanges.DELETE, rs.getLong("row_version"), rs.getString("id"), null
+        ), since, upTo, limit);
+    }
+}
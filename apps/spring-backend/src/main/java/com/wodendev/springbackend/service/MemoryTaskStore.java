@@ -0,0 +1,610 @@
+package com.wodendev.springbackend.service;
+
+import com.wodendev.springbackend.dto.TaskChanges;
+import com.wodendev.springbackend.entity.Task;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The in-memory engine ({@code app.tasks.store=memory}). Every task lives on the
+ * heap behind three indexes:
+ * <ul>
+ *   <li>a concurrent hash map by id for lookups, updates and deletes</li>
+ *   <li>a concurrent skip list ordered by (createdAt, id), newest first, which pages
+ *       and cursors walk in listing order</li>
+ *   <li>a sorted map from lower-cased word to ids for search; every word of the
+ *       term must match a word of the text whole or as a prefix, as with FTS5</li>
+ * </ul>
+ * Reads take no locks; each row is an immutable {@link Row}, so a reader sees a row
+ * either before or after a write. Writes are serialized on one lock and committed
+ * to the {@link TaskJournal} (fsynced when {@code app.tasks.store.memory.fsync})
+ * before they are applied, so an acknowledged write survives a restart. Every
+ * {@code app.tasks.store.memory.snapshot-interval}, and on shutdown, the journal
+ * is compacted into a snapshot.
+ *
+ * Rows carry a change version like the SQL tables, so ETags and /tasks/changes
+ * work unchanged. Offset pages walk the skip list, so, as with SQL OFFSET, their
+ * cost grows with the offset; cursors do not.
+ */
+public class MemoryTaskStore implements TaskStore, InitializingBean, DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(MemoryTaskStore.class);
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}]+");
+
+    /** One stored task. Writes replace the whole row. */
+    record Row(String id, String text, String day, boolean reminder,
+               LocalDateTime createdAt, LocalDateTime updatedAt, long version) {
+
+        Position position() {
+            return new Position(createdAt, id);
+        }
+
+        Row updated(Task task, LocalDateTime now, long newVersion) {
+            return new Row(id, task.getText(), task.getDay(), task.isReminder(), createdAt, now, newVersion);
+        }
+
+        /** The columns the SQL store returns for list rows. */
+        Task toTask() {
+            Task t = new Task();
+            t.setId(id);
+            t.setText(text);
+            t.setDay(day);
+            t.setReminder(reminder);
+            return t;
+        }
+    }
+
+    /** Listing order: newest createdAt first, ties broken by id descending. */
+    record Position(LocalDateTime createdAt, String id) implements Comparable<Position> {
+        @Override
+        public int compareTo(Position other) {
+            int c = other.createdAt.compareTo(createdAt);
+            return c != 0 ? c : other.id.compareTo(id);
+        }
+    }
+
+    private final Map<String, Row> byId = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Position, Row> ordered = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<String, Set<String>> words = new ConcurrentSkipListMap<>();
+    // Version of each live row, and of each delete, for /tasks/changes.
+    private final ConcurrentSkipListMap<Long, String> versions = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Long, String> tombstones = new ConcurrentSkipListMap<>();
+
+    private final TaskJournal journal;
+    private final TaskMetrics taskMetrics;
+    private final Duration snapshotInterval;
+    private final Object writeLock = new Object();
+    private final Object snapshotLock = new Object();
+    private volatile long lastVersion;
+
+    private ScheduledExecutorService snapshots;
+
+    public MemoryTaskStore(Environment env, TaskMetrics taskMetrics) {
+        this.journal = new TaskJournal(directory(env), env.getProperty("app.tasks.store.memory.fsync", Boolean.class, true));
+        this.taskMetrics = taskMetrics;
+        this.snapshotInterval = env.getProperty("app.tasks.store.memory.snapshot-interval", Duration.class, Duration.ofMinutes(5));
+    }
+
+    /** The configured directory, else one next to the SQLite file, else ./tasks-store. */
+    private static Path directory(Environment env) {
+        String configured = env.getProperty("app.tasks.store.memory.dir");
+        if (configured != null && !configured.isBlank()) {
+            return Paths.get(configured).toAbsolutePath().normalize();
+        }
+        String databasePath = env.getProperty("DATABASE_PATH");
+        if (databasePath != null && !databasePath.isBlank()) {
+            return Paths.get(databasePath + "-store").toAbsolutePath().normalize();
+        }
+        return Paths.get("tasks-store").toAbsolutePath().normalize();
+    }
+
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        long start = System.nanoTime();
+        journal.recover(new TaskJournal.Replay() {
+            @Override
+            public void put(Row row) {
+                applyPut(row);
+            }
+
+            @Override
+            public void delete(String id, long version) {
+                applyDelete(id, version);
+            }
+        });
+        logger.info("Loaded {} tasks from {} in {} ms", byId.size(), journal.getDir(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        if (snapshotInterval.isZero() || snapshotInterval.isNegative()) {
+            return;
+        }
+        snapshots = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "task-store-snapshot");
+            t.setDaemon(true);
+            return t;
+        });
+        long millis = snapshotInterval.toMillis();
+        snapshots.scheduleWithFixedDelay(() -> {
+            try {
+                snapshot();
+            } catch (RuntimeException ex) {
+                logger.warn("Task store snapshot failed: {}", ex.getMessage());
+            }
+        }, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if (snapshots != null) {
+            snapshots.shutdownNow();
+        }
+        try {
+            snapshot();
+        } finally {
+            synchronized (writeLock) {
+                journal.close();
+            }
+        }
+    }
+
+    /**
+     * Compacts the journal: starts a new log and writes every row to a snapshot.
+     * Only the copy of the row references holds up writers; the file is written
+     * outside the write lock.
+     */
+    public void snapshot() {
+        synchronized (snapshotLock) {
+            long generation;
+            List<Row> rows;
+            Map<Long, String> dead;
+            synchronized (writeLock) {
+                if (!journal.hasWrites()) {
+                    return;
+                }
+                try {
+                    generation = journal.rotate();
+                } catch (IOException ex) {
+                    throw new DataAccessResourceFailureException("Could not rotate the task journal", ex);
+                }
+                rows = new ArrayList<>(byId.values());
+                dead = new TreeMap<>(tombstones);
+            }
+            try {
+                journal.writeSnapshot(generation, rows, dead);
+            } catch (IOException ex) {
+                throw new DataAccessResourceFailureException("Could not write a task snapshot", ex);
+            }
+        }
+    }
+
+    @Override
+    public void insert(Task task) {
+        synchronized (writeLock) {
+            insertRows(List.of(task));
+        }
+    }
+
+    @Override
+    public void insertAll(List<Task> tasks) {
+        long start = System.nanoTime();
+        try {
+            synchronized (writeLock) {
+                insertRows(tasks);
+            }
+            taskMetrics.record(TaskMetrics.Op.BATCH_INSERT, start, true);
+        } catch (RuntimeException ex) {
+            taskMetrics.record(TaskMetrics.Op.BATCH_INSERT, start, false);
+            throw ex;
+        }
+    }
+
+    private void insertRows(List<Task> tasks) {
+        Set<String> ids = new HashSet<>();
+        for (Task task : tasks) {
+            if (byId.containsKey(task.getId()) || !ids.add(task.getId())) {
+                throw new DuplicateKeyException("A task with id " + task.getId() + " already exists");
+            }
+        }
+        LocalDateTime now = now();
+        long version = lastVersion;
+        List<Row> rows = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            Row row = new Row(task.getId(), task.getText(), task.getDay(), task.isReminder(), now, now, ++version);
+            journal.put(row);
+            rows.add(row);
+        }
+        commit();
+        rows.forEach(this::applyPut);
+    }
+
+    @Override
+    public boolean update(String id, Task task) {
+        synchronized (writeLock) {
+            Row old = byId.get(id);
+            if (old == null) {
+                return false;
+            }
+            Row row = old.updated(task, now(), lastVersion + 1);
+            journal.put(row);
+            commit();
+            applyPut(row);
+            return true;
+        }
+    }
+
+    @Override
+    public int[] updateAll(List<Task> tasks) {
+        long start = System.nanoTime();
+        try {
+            int[] counts = new int[tasks.size()];
+            synchronized (writeLock) {
+                // Later updates of the same id in the batch build on the earlier ones.
+                Map<String, Row> latest = new HashMap<>();
+                List<Row> rows = new ArrayList<>(tasks.size());
+                LocalDateTime now = now();
+                long version = lastVersion;
+                for (int i = 0; i < tasks.size(); i++) {
+                    Task task = tasks.get(i);
+                    Row old = latest.containsKey(task.getId()) ? latest.get(task.getId()) : byId.get(task.getId());
+                    if (old == null) {
+                        continue;
+                    }
+                    Row row = old.updated(task, now, ++version);
+                    journal.put(row);
+                    latest.put(row.id(), row);
+                    rows.add(row);
+                    counts[i] = 1;
+                }
+                commit();
+                rows.forEach(this::applyPut);
+            }
+            taskMetrics.record(TaskMetrics.Op.BATCH_UPDATE, start, true);
+            return counts;
+        } catch (RuntimeException ex) {
+            taskMetrics.record(TaskMetrics.Op.BATCH_UPDATE, start, false);
+            throw ex;
+        }
+    }
+
+    @Override
+    public boolean delete(String id) {
+        synchronized (writeLock) {
+            return deleteRows(List.of(id))[0] > 0;
+        }
+    }
+
+    @Override
+    public int[] deleteAll(List<String> ids) {
+        long start = System.nanoTime();
+        try {
+            int[] counts;
+            synchronized (writeLock) {
+                counts = deleteRows(ids);
+            }
+            taskMetrics.record(TaskMetrics.Op.BATCH_DELETE, start, true);
+            return counts;
+        } catch (RuntimeException ex) {
+            taskMetrics.record(TaskMetrics.Op.BATCH_DELETE, start, false);
+            throw ex;
+        }
+    }
+
+    @Override
+    public List<String> deleteByText(String text) {
+        synchronized (writeLock) {
+            List<String> matched = new ArrayList<>();
+            Set<String> textWords = words(text);
+            Collection<String> candidates = textWords.isEmpty() ? byId.keySet() : withAllWords(textWords, false);
+            for (String id : candidates) {
+                Row row = byId.get(id);
+                if (row != null && text.equals(row.text())) {
+                    matched.add(id);
+                }
+            }
+            deleteRows(matched);
+            return matched;
+        }
+    }
+
+    private int[] deleteRows(List<String> ids) {
+        int[] counts = new int[ids.size()];
+        Set<String> deleted = new HashSet<>();
+        List<String> doomed = new ArrayList<>(ids.size());
+        long version = lastVersion;
+        for (int i = 0; i < ids.size(); i++) {
+            String id = ids.get(i);
+            if (byId.containsKey(id) && deleted.add(id)) {
+                journal.delete(id, ++version);
+                doomed.add(id);
+                counts[i] = 1;
+            }
+        }
+        commit();
+        long first = lastVersion;
+        for (int i = 0; i < doomed.size(); i++) {
+            applyDelete(doomed.get(i), first + i + 1);
+        }
+        return counts;
+    }
+
+    private void commit() {
+        try {
+            journal.commit();
+        } catch (IOException ex) {
+            throw new DataAccessResourceFailureException("Could not write the task journal", ex);
+        }
+    }
+
+    /** Caller holds the write lock (or is recovering). Adds before it removes, so readers never see a gap. */
+    private void applyPut(Row row) {
+        Row old = byId.put(row.id(), row);
+        ordered.put(row.position(), row);
+        Set<String> rowWords = words(row.text());
+        for (String word : rowWords) {
+            words.computeIfAbsent(word, w -> ConcurrentHashMap.newKeySet()).add(row.id());
+        }
+        versions.put(row.version(), row.id());
+        if (old != null) {
+            if (!old.position().equals(row.position())) {
+                ordered.remove(old.position());
+            }
+            unindexWords(old, rowWords);
+            versions.remove(old.version());
+        }
+        lastVersion = Math.max(lastVersion, row.version());
+    }
+
+    private void applyDelete(String id, long version) {
+        Row old = byId.remove(id);
+        if (old != null) {
+            ordered.remove(old.position());
+            unindexWords(old, Set.of());
+            versions.remove(old.version());
+        }
+        tombstones.put(version, id);
+        lastVersion = Math.max(lastVersion, version);
+    }
+
+    private void unindexWords(Row old, Set<String> keep) {
+        for (String word : words(old.text())) {
+            if (!keep.contains(word)) {
+                words.computeIfPresent(word, (w, ids) -> {
+                    ids.remove(old.id());
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+        }
+    }
+
+    @Override
+    public Optional<Task> findOne(String id) {
+        Row row = byId.get(id);
+        if (row == null) {
+            return Optional.empty();
+        }
+        Task task = row.toTask();
+        task.setVersion(row.version());
+        return Optional.of(task);
+    }
+
+    @Override
+    public long count(String search, Integer countLimit) {
+        if (isBlank(search)) {
+            return byId.size();
+        }
+        int matches = matches(search).size();
+        return countLimit != null ? Math.min(matches, countLimit) : matches;
+    }
+
+    @Override
+    public List<Task> page(String search, int limit, int offset) {
+        List<Task> page = new ArrayList<>(Math.min(limit, 1024));
+        forPage(search, limit, offset, row -> page.add(row.toTask()));
+        return page;
+    }
+
+    @Override
+    public void page(String search, int limit, int offset, TaskService.PageSink sink) {
+        forPage(search, limit, offset, row -> sink.row(row.id(), row.text(), row.day(), row.reminder()));
+    }
+
+    private void forPage(String search, int limit, int offset, Consumer<Row> consumer) {
+        Collection<Row> rows = isBlank(search) ? ordered.values() : matches(search);
+        int skipped = 0;
+        int taken = 0;
+        for (Row row : rows) {
+            if (taken == limit) {
+                break;
+            }
+            if (skipped < offset) {
+                skipped++;
+                continue;
+            }
+            consumer.accept(row);
+            taken++;
+        }
+    }
+
+    @Override
+    public List<KeyedTask> seek(TaskCursor after, String search, int fetch) {
+        if (after != null && after.sortKey() == null) {
+            // Every row here has a createdAt, so there is nothing past the keyed rows.
+            return List.of();
+        }
+        Position from = after == null ? null : position(after);
+        Collection<Row> rows;
+        if (isBlank(search)) {
+            rows = from == null ? ordered.values() : ordered.tailMap(from, false).values();
+        } else {
+            rows = matches(search);
+        }
+        List<KeyedTask> page = new ArrayList<>(Math.min(fetch, 1024));
+        for (Row row : rows) {
+            if (page.size() == fetch) {
+                break;
+            }
+            if (from == null || row.position().compareTo(from) > 0) {
+                page.add(new KeyedTask(row.toTask(), row.createdAt().toString()));
+            }
+        }
+        return page;
+    }
+
+    private static Position position(TaskCursor cursor) {
+        try {
+            return new Position(LocalDateTime.parse(cursor.sortKey().trim().replace(' ', 'T')), cursor.id());
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    @Override
+    public void export(LocalDateTime updatedSince, Consumer<Task> sink) {
+        for (Row row : ordered.values()) {
+            if (updatedSince != null && row.updatedAt().isBefore(updatedSince)) {
+                continue;
+            }
+            Task task = row.toTask();
+            task.setCreatedAt(row.createdAt());
+            task.setUpdatedAt(row.updatedAt());
+            sink.accept(task);
+        }
+    }
+
+    @Override
+    public Long tableVersion() {
+        return lastVersion;
+    }
+
+    @Override
+    public List<TaskChanges.Change> changedSince(long since, long upTo, int limit) {
+        List<TaskChanges.Change> changes = new ArrayList<>();
+        for (Map.Entry<Long, String> entry : versions.subMap(since, false, upTo, true).entrySet()) {
+            if (changes.size() == limit) {
+                break;
+            }
+            Row row = byId.get(entry.getValue());
+            if (row == null || row.version() != entry.getKey()) {
+                // Rewritten or deleted meanwhile; it shows up under its newer version.
+                continue;
+            }
+            Task task = row.toTask();
+            task.setVersion(row.version());
+            changes.add(new TaskChanges.Change(TaskChanges.UPSERT, row.version(), row.id(), task));
+        }
+        return changes;
+    }
+
+    @Override
+    public List<TaskChanges.Change> deletedSince(long since, long upTo, int limit) {
+        List<TaskChanges.Change> changes = new ArrayList<>();
+        for (Map.Entry<Long, String> entry : tombstones.subMap(since, false, upTo, true).entrySet()) {
+            if (changes.size() == limit) {
+                break;
+            }
+            changes.add(new TaskChanges.Change(TaskChanges.DELETE, entry.getKey(), entry.getValue(), null));
+        }
+        return changes;
+    }
+
+    /** Rows containing every word of {@code search} (as a word or word prefix), in listing order. */
+    private List<Row> matches(String search) {
+        Set<String> terms = words(search);
+        List<Row> rows = new ArrayList<>();
+        if (terms.isEmpty()) {
+            // Nothing to look up in the word index; fall back to a substring scan, like LIKE.
+            String needle = search.trim().toLowerCase(Locale.ROOT);
+            for (Row row : ordered.values()) {
+                if (row.text() != null && row.text().toLowerCase(Locale.ROOT).contains(needle)) {
+                    rows.add(row);
+                }
+            }
+            return rows;
+        }
+        for (String id : withAllWords(terms, true)) {
+            Row row = byId.get(id);
+            if (row != null) {
+                rows.add(row);
+            }
+        }
+        rows.sort((a, b) -> a.position().compareTo(b.position()));
+        return rows;
+    }
+
+    private Set<String> withAllWords(Set<String> terms, boolean prefix) {
+        Set<String> ids = null;
+        for (String term : terms) {
+            Set<String> hits = new HashSet<>();
+            if (prefix) {
+                words.subMap(term, true, term + Character.MAX_VALUE, true).values().forEach(hits::addAll);
+            } else {
+                Set<String> posting = words.get(term);
+                if (posting != null) {
+                    hits.addAll(posting);
+                }
+            }
+            if (ids == null) {
+                ids = hits;
+            } else {
+                ids.retainAll(hits);
+            }
+            if (ids.isEmpty()) {
+                break;
+            }
+        }
+        return ids == null ? Set.of() : ids;
+    }
+
+    private static Set<String> words(String text) {
+        Set<String> found = new LinkedHashSet<>();
+        if (text == null) {
+            return found;
+        }
+        Matcher m = WORD.matcher(text);
+        while (m.find()) {
+            found.add(m.group().toLowerCase(Locale.ROOT));
+        }
+        return found;
+    }
+
+    private static boolean isBlank(String search) {
+        return search == null || search.trim().isEmpty();
+    }
+
+    /** UTC, matching SQLite's CURRENT_TIMESTAMP. */
+    private static LocalDateTime now() {
+        return LocalDateTime.now(ZoneOffset.UTC);
+    }
+}
@@ -5,10 +5,17 @@ import com.wodendev.springbackend.exception.DatabaseExceptionHelper;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.core.env.Environment;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -18,21 +25,69 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
+@Lazy(false) // migrations must run at startup even with spring.main.lazy-initialization
 @RequiredArgsConstructor
 @Data
 public class Schema implements InitializingBean {
+    private static final Logger logger = LoggerFactory.getLogger(Schema.class);
+
+    /**
+     * Version of the secondary index set below, stored in schema_meta. Bump it when
+     * indexes are added or changed so existing databases pick them up at startup.
+     */
+    static final int INDEX_VERSION = 1;
+    private static final String INDEX_VERSION_KEY = "task_indexes";
+
     private String createdAtColumn;
     private String updatedAtColumn;
 
     private final JdbcTemplate jdbc;
     private final Environment env;
+    private final ApplicationStartup applicationStartup;
     private boolean isSQLite;
+    private boolean isH2;
+    private boolean fullTextEnabled;
+    private boolean rowCountMaintained;
+    private boolean rowVersioned;
+    // Statement text for the detected layout, built once after detection.
+    private TaskSql sql;
 
     @Override
     public void afterPropertiesSet() {
-        this.isSQLite = env.getProperty("spring.datasource.url", "").startsWith("jdbc:sqlite:");
-        ensureTasksTableExists();
-        detectAndMigrateColumns();
+        // Each phase shows up as a startup step (GET /actuator/startup).
+        step("app.schema.detect", this::detectDatabase);
+        step("app.schema.ensure-table", this::ensureTasksTableExists);
+        step("app.schema.migrate-columns", this::detectAndMigrateColumns);
+        step("app.schema.indexes", this::ensureIndexes);
+        step("app.schema.full-text", this::ensureFullTextIndex);
+        step("app.schema.row-count", this::ensureRowCounter);
+        step("app.schema.row-versions", this::ensureRowVersions);
+        this.sql = TaskSql.build(this);
+    }
+
+    private void step(String name, Runnable phase) {
+        StartupStep step = applicationStartup.start(name);
+        try {
+            phase.run();
+        } finally {
+            step.end();
+        }
+    }
+
+    private void detectDatabase() {
+        String product = null;
+        try {
+            product = jdbc.execute((ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+        } catch (DataAccessException ex) {
+            logger.warn("Could not read database product name: {}", ex.getMessage());
+        }
+        if (product == null) {
+            // DATABASE_PATH never shows up in spring.datasource.url, so the URL is only a fallback.
+            this.isSQLite = env.getProperty("spring.datasource.url", "").startsWith("jdbc:sqlite:");
+            return;
+        }
+        this.isSQLite = "SQLite".equalsIgnoreCase(product);
+        this.isH2 = "H2".equalsIgnoreCase(product);
     }
 
     private void ensureTasksTableExists() {
@@ -104,6 +159,252 @@ public class Schema implements InitializingBean {
         this.updatedAtColumn = updatedColumn;
     }
 
+    /**
+     * Indexes for the task access paths: (createdAt, id) for the page and keyset
+     * ordering, updatedAt for the export-since filter and text for removeByName.
+     * Runs only when schema_meta records an older index version; a failure is
+     * logged and retried on the next start, since queries still work without them.
+     */
+    private void ensureIndexes() {
+        if (!env.getProperty("app.schema.indexes.enabled", Boolean.class, true)) {
+            return;
+        }
+        try {
+            jdbc.execute("CREATE TABLE IF NOT EXISTS schema_meta (meta_key VARCHAR(64) PRIMARY KEY, meta_value VARCHAR(255))");
+            List<String> stored = jdbc.queryForList(
+                    "SELECT meta_value FROM schema_meta WHERE meta_key = ?", String.class, INDEX_VERSION_KEY);
+            int version = stored.isEmpty() ? 0 : Integer.parseInt(stored.get(0));
+            if (version >= INDEX_VERSION) {
+                return;
+            }
+
+            logger.info("Creating task indexes (version {} -> {})", version, INDEX_VERSION);
+            if (createdAtColumn != null) {
+                jdbc.execute("CREATE INDEX IF NOT EXISTS idx_tasks_created_id ON tasks (" + createdAtColumn + ", id)");
+            }
+            if (updatedAtColumn != null) {
+                jdbc.execute("CREATE INDEX IF NOT EXISTS idx_tasks_updated ON tasks (" + updatedAtColumn + ")");
+            }
+            jdbc.execute("CREATE INDEX IF NOT EXISTS idx_tasks_text ON tasks (text)");
+
+            jdbc.update("DELETE FROM schema_meta WHERE meta_key = ?", INDEX_VERSION_KEY);
+            jdbc.update("INSERT INTO schema_meta (meta_key, meta_value) VALUES (?, ?)",
+                    INDEX_VERSION_KEY, String.valueOf(INDEX_VERSION));
+        } catch (DataAccessException | NumberFormatException ex) {
+            logger.warn("Could not create task indexes, queries fall back to table scans: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Keeps a full-text index over tasks.text in sync with the table: an external
+     * content FTS5 table maintained by triggers on SQLite, H2's native FullText
+     * index (which installs its own triggers) on H2. Existing rows are indexed the
+     * first time the index is created. Search falls back to LIKE when neither is
+     * available.
+     */
+    private void ensureFullTextIndex() {
+        if (!env.getProperty("app.search.full-text.enabled", Boolean.class, true)) {
+            return;
+        }
+        try {
+            if (isSQLite) {
+                ensureSqliteFullTextIndex();
+            } else if (isH2) {
+                ensureH2FullTextIndex();
+            } else {
+                return;
+            }
+            this.fullTextEnabled = true;
+        } catch (Exception ex) {
+            logger.warn("Full-text index unavailable, task search falls back to LIKE: {}", ex.getMessage());
+        }
+    }
+
+    private void ensureSqliteFullTextIndex() {
+        Integer tables = jdbc.queryForObject(
+                "SELECT COUNT(*) FROM sqlite_master WHERE type = 'table' AND name = 'tasks_fts'", Integer.class);
+        Integer triggers = jdbc.queryForObject(
+                "SELECT COUNT(*) FROM sqlite_master WHERE type = 'trigger' AND name IN ('tasks_fts_ai', 'tasks_fts_ad', 'tasks_fts_au')",
+                Integer.class);
+
+        jdbc.execute(
+                "CREATE VIRTUAL TABLE IF NOT EXISTS tasks_fts USING fts5(" +
+                        "text, content='tasks', content_rowid='rowid', " +
+                        "tokenize='unicode61 remove_diacritics 2', prefix='2 3')"
+        );
+        jdbc.execute(
+                "CREATE TRIGGER IF NOT EXISTS tasks_fts_ai AFTER INSERT ON tasks BEGIN " +
+                        "INSERT INTO tasks_fts(rowid, text) VALUES (new.rowid, new.text); END"
+        );
+        jdbc.execute(
+                "CREATE TRIGGER IF NOT EXISTS tasks_fts_ad AFTER DELETE ON tasks BEGIN " +
+                        "INSERT INTO tasks_fts(tasks_fts, rowid, text) VALUES ('delete', old.rowid, old.text); END"
+        );
+        jdbc.execute(
+                "CREATE TRIGGER IF NOT EXISTS tasks_fts_au AFTER UPDATE OF text ON tasks BEGIN " +
+                        "INSERT INTO tasks_fts(tasks_fts, rowid, text) VALUES ('delete', old.rowid, old.text); " +
+                        "INSERT INTO tasks_fts(rowid, text) VALUES (new.rowid, new.text); END"
+        );
+
+        // A new index, or one that missed writes while a trigger was absent, is rebuilt from tasks.
+        if (tables == null || tables == 0 || triggers == null || triggers < 3) {
+            logger.info("Building tasks full-text index");
+            jdbc.execute("INSERT INTO tasks_fts(tasks_fts) VALUES ('rebuild')");
+        }
+    }
+
+    private void ensureH2FullTextIndex() {
+        jdbc.execute("CREATE ALIAS IF NOT EXISTS FT_INIT FOR 'org.h2.fulltext.FullText.init'");
+        jdbc.execute("CALL FT_INIT()");
+
+        List<java.util.Map<String, Object>> target = jdbc.queryForList(
+                "SELECT TABLE_SCHEMA, TABLE_NAME, COLUMN_NAME FROM INFORMATION_SCHEMA.COLUMNS " +
+                        "WHERE UPPER(TABLE_NAME) = 'TASKS' AND UPPER(COLUMN_NAME) = 'TEXT'"
+        );
+        if (target.isEmpty()) {
+            throw new IllegalStateException("tasks.text column not found");
+        }
+        String tableSchema = target.get(0).get("TABLE_SCHEMA").toString();
+        String tableName = target.get(0).get("TABLE_NAME").toString();
+        String columnName = target.get(0).get("COLUMN_NAME").toString();
+
+        Integer indexes = jdbc.queryForObject(
+                "SELECT COUNT(*) FROM FT.INDEXES WHERE \"SCHEMA\" = ? AND \"TABLE\" = ?",
+                Integer.class, tableSchema, tableName);
+        if (indexes == null || indexes == 0) {
+            // FT_CREATE_INDEX indexes the rows already in the table before returning.
+            logger.info("Building tasks full-text index");
+            jdbc.execute("CALL FT_CREATE_INDEX(?, ?, ?)", (PreparedStatementCallback<Boolean>) ps -> {
+                ps.setString(1, tableSchema);
+                ps.setString(2, tableName);
+                ps.setString(3, columnName);
+                return ps.execute();
+            });
+        }
+    }
+
+    /**
+     * SQLite has no O(1) COUNT(*), so the row count lives in tasks_count and is
+     * kept current by triggers in the same transaction as each write. It is
+     * recounted when the counter or a trigger was missing, and periodically by
+     * {@link TaskRowCountReconciler}. H2 answers COUNT(*) from table metadata and
+     * does not need one.
+     */
+    private void ensureRowCounter() {
+        if (!isSQLite || !env.getProperty("app.tasks.row-count.enabled", Boolean.class, true)) {
+            return;
+        }
+        try {
+            Integer triggers = jdbc.queryForObject(
+                    "SELECT COUNT(*) FROM sqlite_master WHERE type = 'trigger' AND name IN ('tasks_count_ai', 'tasks_count_ad')",
+                    Integer.class);
+
+            jdbc.execute("CREATE TABLE IF NOT EXISTS tasks_count (id INTEGER PRIMARY KEY CHECK (id = 0), n INTEGER NOT NULL)");
+            jdbc.execute(
+                    "CREATE TRIGGER IF NOT EXISTS tasks_count_ai AFTER INSERT ON tasks BEGIN " +
+                            "UPDATE tasks_count SET n = n + 1 WHERE id = 0; END"
+            );
+            jdbc.execute(
+                    "CREATE TRIGGER IF NOT EXISTS tasks_count_ad AFTER DELETE ON tasks BEGIN " +
+                            "UPDATE tasks_count SET n = n - 1 WHERE id = 0; END"
+            );
+
+            if (triggers == null || triggers < 2) {
+                logger.info("Counting tasks for the maintained row count");
+                jdbc.execute("INSERT OR REPLACE INTO tasks_count (id, n) VALUES (0, (SELECT COUNT(*) FROM tasks))");
+            } else {
+                // Without the row, counts fail and the reconciler's UPDATE has nothing to fix.
+                jdbc.execute("INSERT OR IGNORE INTO tasks_count (id, n) VALUES (0, (SELECT COUNT(*) FROM tasks))");
+            }
+            this.rowCountMaintained = true;
+        } catch (DataAccessException ex) {
+            logger.warn("Maintained row count unavailable, GET /tasks falls back to COUNT(*): {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Change tracking for conditional GETs and GET /tasks/changes: every insert and
+     * update stamps the row with the next value of a table-wide version, and every
+     * delete leaves a tombstone (id, version) behind. Inserting an id again clears
+     * its tombstone.
+     *
+     * Both databases bump a one-row tasks_version counter inside the writing
+     * transaction (SQLite with SQL triggers, H2 with {@link TaskVersionTrigger}).
+     * The counter row stays locked until commit, so versions are handed out in
+     * commit order and a reader resuming from the current version never skips a
+     * write that was still in flight. Rows that predate tracking start at 0.
+     */
+    private void ensureRowVersions() {
+        if (!isSQLite && !isH2) {
+            return;
+        }
+        try {
+            if (isSQLite) {
+                ensureSqliteRowVersions();
+            } else {
+                ensureH2RowVersions();
+            }
+            jdbc.execute("CREATE INDEX IF NOT EXISTS idx_tasks_row_version ON tasks (row_version)");
+            jdbc.execute("CREATE INDEX IF NOT EXISTS idx_tasks_tombstones_row_version ON tasks_tombstones (row_version)");
+            this.rowVersioned = true;
+        } catch (DataAccessException ex) {
+            logger.warn("Task change tracking unavailable, ETags and /tasks/changes are disabled: {}", ex.getMessage());
+        }
+    }
+
+    private void ensureSqliteRowVersions() {
+        boolean hasColumn = jdbc.queryForList("PRAGMA table_info(tasks)").stream()
+                .map(row -> row.get("name"))
+                .anyMatch(name -> name != null && "row_version".equalsIgnoreCase(name.toString()));
+        if (!hasColumn) {
+            jdbc.execute("ALTER TABLE tasks ADD COLUMN row_version INTEGER NOT NULL DEFAULT 0");
+        }
+        jdbc.execute("CREATE TABLE IF NOT EXISTS tasks_version (id INTEGER PRIMARY KEY CHECK (id = 0), v INTEGER NOT NULL)");
+        jdbc.execute("INSERT OR IGNORE INTO tasks_version (id, v) VALUES (0, 0)");
+        jdbc.execute("CREATE TABLE IF NOT EXISTS tasks_tombstones (id VARCHAR(64) PRIMARY KEY, row_version INTEGER NOT NULL)");
+
+        // The stamping UPDATEs only touch row_version, which none of the UPDATE OF triggers watch.
+        jdbc.execute(
+                "CREATE TRIGGER IF NOT EXISTS tasks_version_ai AFTER INSERT ON tasks BEGIN " +
+                        "UPDATE tasks_version SET v = v + 1 WHERE id = 0; " +
+                        "UPDATE tasks SET row_version = (SELECT v FROM tasks_version WHERE id = 0) WHERE rowid = new.rowid; " +
+                        "DELETE FROM tasks_tombstones WHERE id = new.id; END"
+        );
+        jdbc.execute(
+                "CREATE TRIGGER IF NOT EXISTS tasks_version_au AFTER UPDATE OF text, day, reminder ON tasks BEGIN " +
+                        "UPDATE tasks_version SET v = v + 1 WHERE id = 0; " +
+                        "UPDATE tasks SET row_version = (SELECT v FROM tasks_version WHERE id = 0) WHERE rowid = new.rowid; END"
+        );
+        jdbc.execute(
+                "CREATE TRIGGER IF NOT EXISTS tasks_version_ad AFTER DELETE ON tasks BEGIN " +
+                        "UPDATE tasks_version SET v = v + 1 WHERE id = 0; " +
+                        "INSERT OR REPLACE INTO tasks_tombstones (id, row_version) " +
+                        "VALUES (old.id, (SELECT v FROM tasks_version WHERE id = 0)); END"
+        );
+    }
+
+    private void ensureH2RowVersions() {
+        jdbc.execute("ALTER TABLE tasks ADD COLUMN IF NOT EXISTS row_version BIGINT NOT NULL DEFAULT 0");
+        jdbc.execute("CREATE TABLE IF NOT EXISTS tasks_tombstones (id VARCHAR(64) PRIMARY KEY, row_version BIGINT NOT NULL)");
+        jdbc.execute("CREATE TABLE IF NOT EXISTS tasks_version (id INT PRIMARY KEY CHECK (id = 0), v BIGINT NOT NULL)");
+
+        // Databases from before the counter stamped versions from a sequence when a statement ran,
+        // not in commit order; continue above the highest version they handed out.
+        jdbc.execute("DROP TRIGGER IF EXISTS tasks_tombstones_trg");
+        jdbc.execute("ALTER TABLE tasks ALTER COLUMN row_version DROP ON UPDATE");
+        jdbc.execute("ALTER TABLE tasks ALTER COLUMN row_version SET DEFAULT 0");
+        jdbc.execute("INSERT INTO tasks_version (id, v) SELECT 0, COALESCE(MAX(v), 0) FROM (" +
+                "SELECT MAX(row_version) AS v FROM tasks UNION ALL SELECT MAX(row_version) AS v FROM tasks_tombstones) versions " +
+                "WHERE NOT EXISTS (SELECT 1 FROM tasks_version)");
+        jdbc.execute("DROP SEQUENCE IF EXISTS tasks_version_seq");
+
+        String trigger = TaskVersionTrigger.class.getName();
+        jdbc.execute("CREATE TRIGGER IF NOT EXISTS tasks_version_biu BEFORE INSERT, UPDATE ON tasks FOR EACH ROW " +
+                "CALL '" + trigger + "'");
+        jdbc.execute("CREATE TRIGGER IF NOT EXISTS tasks_version_ad AFTER DELETE ON tasks FOR EACH ROW " +
+                "CALL '" + trigger + "'");
+    }
+
     private String resolveDatabasePath() {
         String databasePath = env.getProperty("DATABASE_PATH");
         if (databasePath != null && !databasePath.isBlank()) {
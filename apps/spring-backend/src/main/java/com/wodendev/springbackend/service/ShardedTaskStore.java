@@ -0,0 +1,410 @@
+package com.wodendev.springbackend.service;
+
+import com.wodendev.springbackend.dto.TaskChanges;
+import com.wodendev.springbackend.entity.Task;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Tasks hash-partitioned by id across several SQLite files
+ * ({@code app.tasks.store=sharded}), each behind its own {@link JdbcTaskStore}, so
+ * writes to different shards do not wait on one database lock.
+ *
+ * Point reads and writes go to the one shard that owns the id. Counts, pages,
+ * cursors and searches run on every shard in parallel (virtual threads) and the
+ * per-shard results, each already in listing order, are k-way merged by
+ * (createdAt, id). An offset page therefore asks every shard for offset + limit
+ * rows. A batch holds a transaction on each shard it touches, opened in shard
+ * order so concurrent batches cannot deadlock, and commits only once every part
+ * has succeeded; a failure rolls all parts back. Only a COMMIT that fails after
+ * another shard committed can leave a batch half applied.
+ *
+ * Ownership uses jump consistent hashing over a fixed 64-bit hash of the id, so
+ * going from N to N+1 shards moves about 1/(N+1) of the rows. Each shard records
+ * the shard count it was balanced for in schema_meta; at startup, if that differs
+ * from the configured count, or files from a larger count remain, rows are moved
+ * to their owners before requests are served and the extra files are deleted.
+ *
+ * List ETags use the sum of the shards' change versions. /tasks/changes needs
+ * one ordered version sequence and is not available in this mode.
+ */
+public class ShardedTaskStore implements TaskStore, InitializingBean, DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(ShardedTaskStore.class);
+    private static final String LAYOUT_KEY = "task_shard_count";
+    private static final int MOVE_CHUNK = 500;
+
+    /** Listing order of every shard: sort key descending with NULLs last, then id descending. */
+    private static final Comparator<KeyedTask> LISTING = Comparator
+            .comparing(KeyedTask::sortKey, Comparator.nullsLast(Comparator.<String>reverseOrder()))
+            .thenComparing(k -> k.task().getId(), Comparator.reverseOrder());
+
+    /**
+     * One SQLite file. {@code jdbc} and {@code transactionTemplate} share the writer
+     * DataSource; {@code retire} closes and deletes a file beyond the shard count.
+     */
+    public record Shard(int index, JdbcTaskStore store, Schema schema, JdbcTemplate jdbc,
+                        TransactionTemplate transactionTemplate, Runnable retire) {
+    }
+
+    private final List<Shard> active;
+    private final List<Shard> retiring;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /** @param shards every opened shard in index order; the first {@code count} receive rows */
+    public ShardedTaskStore(List<Shard> shards, int count) {
+        this.active = List.copyOf(shards.subList(0, count));
+        this.retiring = List.copyOf(shards.subList(count, shards.size()));
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        rebalance();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    // ---- routing
+
+    /** FNV-1a over the id's chars. Placement is persisted, so this must never change. */
+    static long hash(String id) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < id.length(); i++) {
+            h ^= id.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /** Jump consistent hash (Lamping and Veach): a bucket in [0, buckets). */
+    static int jump(long key, int buckets) {
+        long b = -1;
+        long j = 0;
+        while (j < buckets) {
+            b = j;
+            key = key * 2862933555777941757L + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+
+    private Shard shardFor(String id) {
+        return active.get(jump(hash(id), active.size()));
+    }
+
+    // ---- writes
+
+    @Override
+    public void insert(Task task) {
+        shardFor(task.getId()).store().insert(task);
+    }
+
+    @Override
+    public void insertAll(List<Task> tasks) {
+        List<Group<Task>> groups = groups(tasks, Task::getId);
+        inTransactions(groups, 0, () -> {
+            groups.forEach(g -> g.shard().store().insertAll(g.items()));
+            return null;
+        });
+    }
+
+    @Override
+    public boolean update(String id, Task task) {
+        return shardFor(id).store().update(id, task);
+    }
+
+    @Override
+    public int[] updateAll(List<Task> tasks) {
+        return counts(tasks.size(), groups(tasks, Task::getId), g -> g.shard().store().updateAll(g.items()));
+    }
+
+    @Override
+    public boolean delete(String id) {
+        return shardFor(id).store().delete(id);
+    }
+
+    @Override
+    public int[] deleteAll(List<String> ids) {
+        return counts(ids.size(), groups(ids, Function.identity()), g -> g.shard().store().deleteAll(g.items()));
+    }
+
+    @Override
+    public List<String> deleteByText(String text) {
+        List<String> ids = new ArrayList<>();
+        fanOut(active, s -> s.store().deleteByText(text)).forEach(ids::addAll);
+        return ids;
+    }
+
+    /** One shard's share of a batch, with the input positions of its items. */
+    private record Group<T>(Shard shard, List<Integer> positions, List<T> items) {
+    }
+
+    private <T> List<Group<T>> groups(List<T> items, Function<T, String> idOf) {
+        Map<Integer, Group<T>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            T item = items.get(i);
+            Shard shard = shardFor(idOf.apply(item));
+            Group<T> group = groups.computeIfAbsent(shard.index(),
+                    k -> new Group<>(shard, new ArrayList<>(), new ArrayList<>()));
+            group.positions().add(i);
+            group.items().add(item);
+        }
+        // Shard order: batches take the single writer connections in the same order.
+        return groups.values().stream().sorted(Comparator.comparingInt(g -> g.shard().index())).toList();
+    }
+
+    /**
+     * Runs {@code work} inside a transaction on each group's shard, nested in
+     * group order. The stores' own transactions join these, so nothing commits
+     * until {@code work} has returned.
+     */
+    private static <T, R> R inTransactions(List<Group<T>> groups, int from, Supplier<R> work) {
+        if (from == groups.size()) {
+            return work.get();
+        }
+        return groups.get(from).shard().transactionTemplate().execute(status -> inTransactions(groups, from + 1, work));
+    }
+
+    /** Runs {@code batch} per group, all or none, and puts each group's counts back at the input positions. */
+    private static <T> int[] counts(int size, List<Group<T>> groups, Function<Group<T>, int[]> batch) {
+        List<int[]> results = inTransactions(groups, 0, () -> groups.stream().map(batch).toList());
+        int[] counts = new int[size];
+        for (int g = 0; g < groups.size(); g++) {
+            List<Integer> positions = groups.get(g).positions();
+            int[] result = results.get(g);
+            for (int i = 0; i < positions.size(); i++) {
+                counts[positions.get(i)] = result[i];
+            }
+        }
+        return counts;
+    }
+
+    // ---- reads
+
+    @Override
+    public Optional<Task> findOne(String id) {
+        return shardFor(id).store().findOne(id);
+    }
+
+    @Override
+    public long count(String search, Integer countLimit) {
+        long total = 0;
+        for (long shardCount : fanOut(active, s -> s.store().count(search, countLimit))) {
+            total += shardCount;
+        }
+        return countLimit != null && search != null && !search.isBlank() ? Math.min(total, countLimit) : total;
+    }
+
+    @Override
+    public List<Task> page(String search, int limit, int offset) {
+        return merged(null, search, offset, limit).stream().map(KeyedTask::task).toList();
+    }
+
+    @Override
+    public void page(String search, int limit, int offset, TaskService.PageSink sink) {
+        for (KeyedTask row : merged(null, search, offset, limit)) {
+            Task t = row.task();
+            sink.row(t.getId(), t.getText(), t.getDay(), t.isReminder());
+        }
+    }
+
+    @Override
+    public List<KeyedTask> seek(TaskCursor after, String search, int fetch) {
+        return merged(after, search, 0, fetch);
+    }
+
+    /** Rows {@code skip} to {@code skip + take} of the merged listing after {@code after}. */
+    private List<KeyedTask> merged(TaskCursor after, String search, int skip, int take) {
+        int fetch = skip + take;
+        return merge(fanOut(active, s -> s.store().seek(after, search, fetch)), skip, take);
+    }
+
+    private record Head(KeyedTask row, int list, int pos) {
+    }
+
+    private static List<KeyedTask> merge(List<List<KeyedTask>> lists, int skip, int take) {
+        PriorityQueue<Head> heads = new PriorityQueue<>(Math.max(1, lists.size()), (a, b) -> LISTING.compare(a.row(), b.row()));
+        for (int i = 0; i < lists.size(); i++) {
+            if (!lists.get(i).isEmpty()) {
+                heads.add(new Head(lists.get(i).get(0), i, 0));
+            }
+        }
+        List<KeyedTask> out = new ArrayList<>(Math.min(take, 1024));
+        int skipped = 0;
+        while (!heads.isEmpty() && out.size() < take) {
+            Head head = heads.poll();
+            if (skipped < skip) {
+                skipped++;
+            } else {
+                out.add(head.row());
+            }
+            List<KeyedTask> source = lists.get(head.list());
+            int next = head.pos() + 1;
+            if (next < source.size()) {
+                heads.add(new Head(source.get(next), head.list(), next));
+            }
+        }
+        return out;
+    }
+
+    /** Shard by shard; the sink is not thread-safe and export order is unspecified anyway. */
+    @Override
+    public void export(LocalDateTime updatedSince, Consumer<Task> sink) {
+        for (Shard shard : active) {
+            shard.store().export(updatedSince, sink);
+        }
+    }
+
+    @Override
+    public Long tableVersion() {
+        long sum = 0;
+        for (Long version : fanOut(active, s -> s.store().tableVersion())) {
+            if (version == null) {
+                return null;
+            }
+            sum += version;
+        }
+        return sum;
+    }
+
+    @Override
+    public List<TaskChanges.Change> changedSince(long since, long upTo, int limit) {
+        throw new IllegalArgumentException("Change tracking is not available with sharded task storage");
+    }
+
+    @Override
+    public List<TaskChanges.Change> deletedSince(long since, long upTo, int limit) {
+        throw new IllegalArgumentException("Change tracking is not available with sharded task storage");
+    }
+
+    /** Applies {@code work} to every input on its own virtual thread; results in input order. */
+    private <S, T> List<T> fanOut(List<S> inputs, Function<S, T> work) {
+        List<T> results = new ArrayList<>(inputs.size());
+        if (inputs.size() == 1) {
+            results.add(work.apply(inputs.get(0)));
+            return results;
+        }
+        List<CompletableFuture<T>> futures = new ArrayList<>(inputs.size());
+        for (S input : inputs) {
+            futures.add(CompletableFuture.supplyAsync(() -> work.apply(input), executor));
+        }
+        for (CompletableFuture<T> future : futures) {
+            try {
+                results.add(future.join());
+            } catch (CompletionException ex) {
+                if (ex.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw ex;
+            }
+        }
+        return results;
+    }
+
+    // ---- rebalancing
+
+    private void rebalance() {
+        String layout = String.valueOf(active.size());
+        boolean balanced = retiring.isEmpty() && active.stream().allMatch(s -> layout.equals(readLayout(s)));
+        if (balanced) {
+            return;
+        }
+        long start = System.nanoTime();
+        long moved = 0;
+        List<Shard> all = new ArrayList<>(active);
+        all.addAll(retiring);
+        for (Shard source : all) {
+            moved += moveMisplaced(source);
+        }
+        // Recorded only once every row is home, so an interrupted rebalance runs again.
+        active.forEach(s -> writeLayout(s, layout));
+        retiring.forEach(s -> s.retire().run());
+        logger.info("Rebalanced tasks across {} shards: moved {} rows, retired {} files in {} ms", active.size(), moved,
+                retiring.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private long moveMisplaced(Shard source) {
+        Map<Integer, List<String>> byTarget = new LinkedHashMap<>();
+        for (String id : source.jdbc().queryForList("SELECT id FROM tasks", String.class)) {
+            Shard target = shardFor(id);
+            if (target.index() != source.index()) {
+                byTarget.computeIfAbsent(target.index(), k -> new ArrayList<>()).add(id);
+            }
+        }
+        long moved = 0;
+        for (Map.Entry<Integer, List<String>> entry : byTarget.entrySet()) {
+            Shard target = active.get(entry.getKey());
+            List<String> ids = entry.getValue();
+            for (int from = 0; from < ids.size(); from += MOVE_CHUNK) {
+                List<String> chunk = ids.subList(from, Math.min(ids.size(), from + MOVE_CHUNK));
+                move(source, target, chunk);
+                moved += chunk.size();
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Copies the rows with their timestamps, then deletes them from the source. A
+     * crash in between leaves copies the next run skips (INSERT OR IGNORE).
+     */
+    private static void move(Shard source, Shard target, List<String> ids) {
+        String in = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        List<Object[]> rows = source.jdbc().query(
+                "SELECT id, text, day, reminder, " + source.schema().getCreatedAtColumn() + ", "
+                        + source.schema().getUpdatedAtColumn() + " FROM tasks WHERE id IN (" + in + ")",
+                (rs, n) -> new Object[]{rs.getString(1), rs.getString(2), rs.getString(3), rs.getInt(4),
+                        rs.getString(5), rs.getString(6)},
+                ids.toArray());
+        String insert = "INSERT OR IGNORE INTO tasks(id, text, day, reminder, " + target.schema().getCreatedAtColumn()
+                + ", " + target.schema().getUpdatedAtColumn() + ") "
+                + "VALUES(?, ?, ?, ?, COALESCE(?, CURRENT_TIMESTAMP), COALESCE(?, CURRENT_TIMESTAMP))";
+        target.transactionTemplate().executeWithoutResult(status -> target.jdbc().batchUpdate(insert, rows));
+        source.transactionTemplate().executeWithoutResult(status ->
+                source.jdbc().update("DELETE FROM tasks WHERE id IN (" + in + ")", ids.toArray()));
+    }
+
+    private static String readLayout(Shard shard) {
+        try {
+            List<String> values = shard.jdbc().queryForList(
+                    "SELECT meta_value FROM schema_meta WHERE meta_key = ?", String.class, LAYOUT_KEY);
+            return values.isEmpty() ? null : values.get(0);
+        } catch (DataAccessException ex) {
+            // No schema_meta yet (indexes disabled): never balanced.
+            return null;
+        }
+    }
+
+    private static void writeLayout(Shard shard, String layout) {
+        JdbcTemplate jdbc = shard.jdbc();
+        jdbc.execute("CREATE TABLE IF NOT EXISTS schema_meta (meta_key VARCHAR(64) PRIMARY KEY, meta_value VARCHAR(255))");
+        jdbc.update("DELETE FROM schema_meta WHERE meta_key = ?", LAYOUT_KEY);
+        jdbc.update("INSERT INTO schema_meta (meta_key, meta_value) VALUES (?, ?)", LAYOUT_KEY, layout);
+    }
+}
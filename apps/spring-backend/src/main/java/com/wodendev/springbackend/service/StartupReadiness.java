@@ -0,0 +1,108 @@
+package com.wodendev.springbackend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tracks when the backend can actually serve task requests. Tomcat accepts
+ * connections as soon as the context is ready, but the first queries still pay
+ * for opening reader connections and preparing statements, so once the
+ * application is ready this runs a count and a one-row page through the
+ * {@link TaskStore} that serves requests (and a count on the SQL writer) and
+ * only then reports ready.
+ *
+ * Also logs one line with the startup phase timings recorded as app.* steps.
+ */
+@Service
+public class StartupReadiness {
+    private static final Logger logger = LoggerFactory.getLogger(StartupReadiness.class);
+
+    private final JdbcTemplate jdbc;
+    private final TaskStore store;
+    private final Schema schema;
+    private final ApplicationStartup applicationStartup;
+
+    private volatile Map<String, Object> details;
+    private volatile String failure;
+
+    public StartupReadiness(JdbcTemplate jdbc, TaskStore store, Schema schema, ApplicationStartup applicationStartup) {
+        this.jdbc = jdbc;
+        this.store = store;
+        this.schema = schema;
+        this.applicationStartup = applicationStartup;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp(ApplicationReadyEvent event) {
+        long start = System.nanoTime();
+        StartupStep step = applicationStartup.start("app.warmup");
+        TaskSql sql = schema.getSql();
+        try {
+            jdbc.queryForObject(sql.count(), Long.class);
+            store.count(null, null);
+            store.page(null, 1, 0);
+        } catch (DataAccessException ex) {
+            failure = ex.getMessage();
+            logger.error("Database warm-up failed; /health stays unavailable", ex);
+            return;
+        } finally {
+            step.end();
+        }
+
+        Map<String, Object> timings = new LinkedHashMap<>(phaseTimings());
+        timings.put("ready", millis(event.getTimeTaken()));
+        timings.put("app.warmup", (System.nanoTime() - start) / 1_000_000);
+
+        Map<String, Object> ready = new LinkedHashMap<>();
+        ready.put("database", schema.isSQLite() ? "sqlite" : schema.isH2() ? "h2" : "other");
+        ready.put("fullTextSearch", sql.fullText() != null);
+        ready.put("store", store.getClass().getSimpleName());
+        ready.put("startupMs", timings);
+        details = ready;
+        logger.info("Startup timings (ms): {}", timings);
+    }
+
+    public boolean isReady() {
+        return details != null;
+    }
+
+    /** Null until warm-up succeeded. */
+    public Map<String, Object> details() {
+        return details;
+    }
+
+    /** Message of the failed warm-up, or null. */
+    public String failure() {
+        return failure;
+    }
+
+    /** Durations of the app.* steps, summed per step name; empty unless startup is buffered. */
+    private Map<String, Long> phaseTimings() {
+        Map<String, Long> timings = new LinkedHashMap<>();
+        if (applicationStartup instanceof BufferingApplicationStartup buffering) {
+            buffering.getBufferedTimeline().getEvents().forEach(e -> {
+                String name = e.getStartupStep().getName();
+                if (name.startsWith("app.") || name.equals("spring.context.refresh")) {
+                    timings.merge(name, millis(e.getDuration()), Long::sum);
+                }
+            });
+        }
+        return timings;
+    }
+
+    private static long millis(Duration duration) {
+        return duration == null ? 0 : duration.toMillis();
+    }
+}
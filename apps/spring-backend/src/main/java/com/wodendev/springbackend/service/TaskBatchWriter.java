@@ -0,0 +1,111 @@
+package com.wodendev.springbackend.service;
+
+import com.wodendev.springbackend.entity.Task;
+
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chunked JDBC batches for task writes. Each chunk is sent as one
+ * {@code executeBatch} on a single prepared statement. Callers own the
+ * transaction; running a whole batch inside one keeps SQLite to a single commit
+ * (and a single fsync) for the lot.
+ *
+ * Every write method returns one update count per input element, in input order.
+ */
+@Service
+public class TaskBatchWriter {
+    private final JdbcTemplate jdbc;
+    private final Schema schema;
+    private final TaskMetrics taskMetrics;
+    private final int chunkSize;
+
+    public TaskBatchWriter(JdbcTemplate jdbc, Schema schema, TaskMetrics taskMetrics, Environment env) {
+        this.jdbc = jdbc;
+        this.schema = schema;
+        this.taskMetrics = taskMetrics;
+        this.chunkSize = Math.max(1, env.getProperty("app.batch.chunk-size", Integer.class, 500));
+    }
+
+    public int[] insert(List<Task> tasks) {
+        long start = System.nanoTime();
+        try {
+            int[][] chunks = jdbc.batchUpdate(schema.getSql().insert(), tasks, chunkSize, (ps, task) -> {
+                ps.setString(1, task.getId());
+                ps.setString(2, task.getText());
+                ps.setString(3, task.getDay());
+                ps.setInt(4, task.isReminder() ? 1 : 0);
+            });
+            taskMetrics.record(TaskMetrics.Op.BATCH_INSERT, start, true);
+            return flatten(chunks, tasks.size());
+        } catch (DataAccessException ex) {
+            taskMetrics.record(TaskMetrics.Op.BATCH_INSERT, start, false);
+            throw ex;
+        }
+    }
+
+    public int[] update(List<Task> tasks) {
+        long start = System.nanoTime();
+        try {
+            int[][] chunks = jdbc.batchUpdate(schema.getSql().update(), tasks, chunkSize, (ps, task) -> {
+                ps.setString(1, task.getText());
+                ps.setString(2, task.getDay());
+                ps.setInt(3, task.isReminder() ? 1 : 0);
+                ps.setString(4, task.getId());
+            });
+            taskMetrics.record(TaskMetrics.Op.BATCH_UPDATE, start, true);
+            return flatten(chunks, tasks.size());
+        } catch (DataAccessException ex) {
+            taskMetrics.record(TaskMetrics.Op.BATCH_UPDATE, start, false);
+            throw ex;
+        }
+    }
+
+    public int[] delete(List<String> ids) {
+        long start = System.nanoTime();
+        try {
+            int[][] chunks = jdbc.batchUpdate(schema.getSql().delete(), ids, chunkSize,
+                    (ps, id) -> ps.setString(1, id));
+            taskMetrics.record(TaskMetrics.Op.BATCH_DELETE, start, true);
+            return flatten(chunks, ids.size());
+        } catch (DataAccessException ex) {
+            taskMetrics.record(TaskMetrics.Op.BATCH_DELETE, start, false);
+            throw ex;
+        }
+    }
+
+    /**
+     * Reads the rows back as {@link TaskStore#findOne} returns them, on the writer
+     * connection so a caller's open transaction sees its own writes. Ids without
+     * a row are left out.
+     */
+    public Map<String, Task> reload(Collection<String> ids) {
+        Map<String, Task> rows = new HashMap<>();
+        for (String id : ids) {
+            for (Task t : jdbc.query(schema.getSql().findOne(), JdbcTaskStore.findOneMapper(schema), id)) {
+                rows.put(t.getId(), t);
+            }
+        }
+        return rows;
+    }
+
+    private static int[] flatten(int[][] chunks, int size) {
+        int[] counts = new int[size];
+        int i = 0;
+        for (int[] chunk : chunks) {
+            for (int count : chunk) {
+                // Drivers that cannot report a row count are taken to have touched the row.
+                counts[i++] = count == Statement.SUCCESS_NO_INFO ? 1 : count;
+            }
+        }
+        return counts;
+    }
+}
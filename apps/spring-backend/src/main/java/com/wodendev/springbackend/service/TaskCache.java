@@ -0,0 +1,151 @@
+package com.wodendev.springbackend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wodendev.springbackend.entity.Task;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded read-through cache in front of {@link TaskService#findOne} and
+ * {@link TaskService#findAll}. Single tasks are evicted by id; list pages are
+ * dropped on every write because any insert or delete shifts page boundaries.
+ *
+ * Hit, miss and eviction counts are published as cache.* meters tagged
+ * cache=tasks and cache=task-pages.
+ *
+ * With the cache off, identical findAll calls that overlap still share one
+ * query ({@code app.cache.coalesce.enabled}): the first caller runs it and
+ * later ones wait for its page. Page invalidation ends the sharing, so a call
+ * that starts after a write never gets a page loaded before it. Callers served
+ * this way count towards {@code task.query.coalesced}. (The cache itself loads
+ * each key once, so concurrent misses are already shared when it is on.)
+ */
+@Service
+public class TaskCache {
+    private final boolean enabled;
+    private final Cache<String, Task> tasks;
+    private final Cache<PageKey, Page<Task>> pages;
+    private final boolean coalesce;
+    private final ConcurrentHashMap<PageKey, CompletableFuture<Page<Task>>> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalesced;
+
+    // Bumped on every page invalidation so a load that raced with a write is not kept.
+    private final AtomicLong pageGeneration = new AtomicLong();
+
+    public TaskCache(Environment env, MeterRegistry registry) {
+        this.enabled = env.getProperty("app.cache.enabled", Boolean.class, true);
+        this.tasks = Caffeine.newBuilder()
+                .maximumSize(env.getProperty("app.cache.tasks.max-size", Long.class, 10_000L))
+                .expireAfterWrite(env.getProperty("app.cache.tasks.ttl", Duration.class, Duration.ofMinutes(5)))
+                .recordStats()
+                .build();
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(env.getProperty("app.cache.pages.max-size", Long.class, 1_000L))
+                .expireAfterWrite(env.getProperty("app.cache.pages.ttl", Duration.class, Duration.ofMinutes(1)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, tasks, "tasks");
+        CaffeineCacheMetrics.monitor(registry, pages, "task-pages");
+        this.coalesce = env.getProperty("app.cache.coalesce.enabled", Boolean.class, true);
+        this.coalesced = Counter.builder("task.query.coalesced")
+                .description("findAll calls answered by another caller's in-flight query")
+                .tag("operation", "findAll")
+                .register(registry);
+    }
+
+    public Optional<Task> findOne(String id, Function<String, Optional<Task>> loader) {
+        if (!enabled || id == null) {
+            return loader.apply(id);
+        }
+        // Misses are not cached, so a later create with this id needs no eviction.
+        return Optional.ofNullable(tasks.get(id, key -> loader.apply(key).orElse(null)));
+    }
+
+    /**
+     * @param version table version the caller read before the call, or null. It is
+     *                part of the key: a write commits before its pages are evicted,
+     *                so a caller that already sees the new version must not get a
+     *                page cached under the old one.
+     */
+    public Page<Task> findAll(int page, int limit, String search, Integer countLimit, Long version,
+                              Supplier<Page<Task>> loader) {
+        if (!enabled && !coalesce) {
+            return loader.get();
+        }
+        PageKey key = new PageKey(page, limit, search == null || search.isBlank() ? null : search.trim(), countLimit,
+                version);
+        if (!enabled) {
+            return shared(key, loader);
+        }
+        long generation = pageGeneration.get();
+        Page<Task> result = pages.get(key, k -> loader.get());
+        if (pageGeneration.get() != generation) {
+            pages.asMap().remove(key, result);
+        }
+        return result;
+    }
+
+    private Page<Task> shared(PageKey key, Supplier<Page<Task>> loader) {
+        CompletableFuture<Page<Task>> flight = new CompletableFuture<>();
+        CompletableFuture<Page<Task>> running = inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            coalesced.increment();
+            try {
+                return running.join();
+            } catch (CompletionException ex) {
+                // The leader's own exception, e.g. DatabaseOperationException.
+                if (ex.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw ex;
+            }
+        }
+        try {
+            Page<Task> result = loader.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error ex) {
+            flight.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    public void evictTask(String id) {
+        if (id != null) {
+            tasks.invalidate(id);
+        }
+    }
+
+    public void evictTasks(Collection<String> ids) {
+        tasks.invalidateAll(ids);
+    }
+
+    public void evictPages() {
+        pageGeneration.incrementAndGet();
+        pages.invalidateAll();
+        // Queries already running finish for their callers; new callers start afresh.
+        inFlight.clear();
+    }
+
+    private record PageKey(int page, int limit, String search, Integer countLimit, Long version) {
+    }
+}
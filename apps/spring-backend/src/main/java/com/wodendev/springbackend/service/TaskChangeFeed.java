@@ -0,0 +1,228 @@
+package com.wodendev.springbackend.service;
+
+import com.wodendev.springbackend.entity.Task;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.env.Environment;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes committed task mutations to Server-Sent Events subscribers (GET /tasks/events)
+ * so open windows do not have to poll GET /tasks.
+ *
+ * Every change gets the next sequence number and goes into a log of the last
+ * {@code app.changes.log-size} changes; a client that reconnects with Last-Event-ID
+ * gets what it missed from there, or a "reset" event (refetch everything) if the
+ * log has moved past it. Sequence numbers live in memory and start over with
+ * the process, so event ids are "{epoch}-{seq}" with a per-process epoch: an id
+ * from an earlier process, or a sequence number ahead of this one, also resets.
+ *
+ * Publishing never blocks: each subscriber has its own bounded buffer drained by a
+ * virtual thread. A subscriber whose buffer overflows is disconnected and resumes
+ * from the log when it reconnects, so a slow client cannot stall writers.
+ */
+@Service
+public class TaskChangeFeed implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(TaskChangeFeed.class);
+
+    public static final String CREATED = "created";
+    public static final String UPDATED = "updated";
+    public static final String DELETED = "deleted";
+
+    /** {@code task} is null for deletes. */
+    public record Change(long seq, String type, String id, Task task) {
+    }
+
+    private final int logSize;
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final ArrayDeque<Change> log;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+    // Guarded by log.
+    private long lastSeq;
+
+    public TaskChangeFeed(Environment env) {
+        this.logSize = Math.max(1, env.getProperty("app.changes.log-size", Integer.class, 1000));
+        this.bufferSize = Math.max(1, env.getProperty("app.changes.subscriber-buffer", Integer.class, 256));
+        this.timeoutMillis = env.getProperty("app.changes.sse-timeout", Duration.class, Duration.ofMinutes(30)).toMillis();
+        this.log = new ArrayDeque<>(logSize);
+    }
+
+    public void created(Task task) {
+        publish(CREATED, task.getId(), task);
+    }
+
+    public void updated(Task task) {
+        publish(UPDATED, task.getId(), task);
+    }
+
+    public void deleted(String id) {
+        publish(DELETED, id, null);
+    }
+
+    private void publish(String type, String id, Task task) {
+        // Offering under the lock keeps every subscriber's events in sequence order;
+        // offer() itself never waits.
+        synchronized (log) {
+            Change change = new Change(++lastSeq, type, id, task);
+            if (log.size() == logSize) {
+                log.removeFirst();
+            }
+            log.addLast(change);
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(change);
+            }
+        }
+    }
+
+    public long lastSeq() {
+        synchronized (log) {
+            return lastSeq;
+        }
+    }
+
+    /**
+     * @param lastEventId the Last-Event-ID header, if any; takes precedence over {@code since}
+     * @param since       sequence number the client has already applied, or null to
+     *                    only receive changes from now on
+     */
+    public SseEmitter subscribe(String lastEventId, Long since) {
+        Long lastSeen = since;
+        boolean otherProcess = false;
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            String id = lastEventId.trim();
+            int dash = id.lastIndexOf('-');
+            if (dash >= 0) {
+                otherProcess = !epoch.equals(id.substring(0, dash));
+                id = id.substring(dash + 1);
+            }
+            try {
+                lastSeen = Long.parseLong(id);
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Last-Event-ID must be an event id from this feed");
+            }
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        synchronized (log) {
+            List<Change> replay = new ArrayList<>();
+            boolean reset = false;
+            if (lastSeen != null && (otherProcess || lastSeen > lastSeq)) {
+                // Numbered by an earlier process: nothing here says what the client missed.
+                reset = true;
+            } else if (lastSeen != null && lastSeen < lastSeq) {
+                long oldest = log.isEmpty() ? lastSeq + 1 : log.getFirst().seq();
+                if (lastSeen < oldest - 1) {
+                    reset = true;
+                } else {
+                    for (Change change : log) {
+                        if (change.seq() > lastSeen) {
+                            replay.add(change);
+                        }
+                    }
+                }
+            }
+
+            Subscriber subscriber = new Subscriber(emitter, bufferSize + replay.size());
+            emitter.onCompletion(() -> subscribers.remove(subscriber));
+            emitter.onTimeout(() -> subscribers.remove(subscriber));
+            emitter.onError(ex -> subscribers.remove(subscriber));
+
+            subscriber.control(reset ? "reset" : "ready", lastSeq);
+            replay.forEach(subscriber::offer);
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void destroy() {
+        subscribers.forEach(s -> s.emitter.complete());
+        subscribers.clear();
+        sender.shutdownNow();
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, int capacity) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(capacity + 1);
+        }
+
+        void control(String name, long seq) {
+            enqueue(SseEmitter.event().name(name).data(Map.of("seq", seq), MediaType.APPLICATION_JSON));
+        }
+
+        void offer(Change change) {
+            enqueue(SseEmitter.event()
+                    .id(epoch + "-" + change.seq())
+                    .name(change.type())
+                    .data(change, MediaType.APPLICATION_JSON));
+        }
+
+        private void enqueue(SseEmitter.SseEventBuilder event) {
+            if (closed) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                // Too far behind: drop the connection; the client resumes from the log.
+                logger.debug("Change feed subscriber fell behind, disconnecting");
+                close();
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!closed && (event = queue.poll()) != null) {
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException ex) {
+                // Client went away; the emitter callbacks remove the subscriber.
+                close();
+            } finally {
+                draining.set(false);
+            }
+            if (!closed && !queue.isEmpty() && draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void close() {
+            closed = true;
+            subscribers.remove(this);
+            queue.clear();
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.wodendev.springbackend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a keyset page: the sort column value and the id
+ * that breaks ties. A null sort key means the listing has moved past all rows
+ * with a sort value and is walking the rows where it is NULL.
+ *
+ * Clients only ever see the encoded form, which is opaque base64url.
+ */
+record TaskCursor(String sortKey, String id) {
+    private static final char NULL_MARKER = '0';
+    private static final char VALUE_MARKER = '1';
+
+    static TaskCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        int sep = raw.indexOf('\n');
+        if (raw.isEmpty() || sep < 1) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        String id = raw.substring(sep + 1);
+        return switch (raw.charAt(0)) {
+            case NULL_MARKER -> new TaskCursor(null, id);
+            case VALUE_MARKER -> new TaskCursor(raw.substring(1, sep), id);
+            default -> throw new IllegalArgumentException("Invalid cursor");
+        };
+    }
+
+    String encode() {
+        String raw = (sortKey == null ? String.valueOf(NULL_MARKER) : VALUE_MARKER + sortKey) + "\n" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,113 @@
+package com.wodendev.springbackend.service;
+
+import com.wodendev.springbackend.exception.DatabaseBusyException;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pools the /async task endpoints run TaskService calls on, so the
+ * servlet thread is released while the query runs. Each {@link Lane} has its own
+ * {@code app.async.<lane>.threads} workers and a queue of
+ * {@code app.async.queue-capacity}, so slow listings and searches can fill the
+ * list lane without delaying point reads or writes. A call that finds its queue
+ * full fails at once with {@link DatabaseBusyException} (503 with Retry-After),
+ * like the connection limiter.
+ *
+ * A read not finished within {@code app.async.timeout} completes with a
+ * {@link TimeoutException}; timing out or cancelling drops the call if it is
+ * still queued, and otherwise lets it finish and discards the result. Workers
+ * are never interrupted: an interrupt inside a file write would close the
+ * memory store's journal. Writes have no timeout, since a client told the
+ * outcome is unknown could retry a write that still commits.
+ */
+@Service
+public class TaskDbExecutor implements DisposableBean {
+    public enum Lane {
+        /** findOne and other single-row reads. */
+        POINT(4),
+        /** Listings and searches, which can be slow. */
+        LIST(2),
+        /** Creates, updates and deletes, single or batched. */
+        WRITE(2);
+
+        private final int defaultThreads;
+
+        Lane(int defaultThreads) {
+            this.defaultThreads = defaultThreads;
+        }
+    }
+
+    private final Map<Lane, ThreadPoolExecutor> executors = new EnumMap<>(Lane.class);
+    private final Duration timeout;
+
+    public TaskDbExecutor(Environment env) {
+        int capacity = Math.max(1, env.getProperty("app.async.queue-capacity", Integer.class, 256));
+        this.timeout = env.getProperty("app.async.timeout", Duration.class, Duration.ofSeconds(10));
+        for (Lane lane : Lane.values()) {
+            String name = lane.name().toLowerCase(Locale.ROOT);
+            int threads = Math.max(1, env.getProperty("app.async." + name + ".threads", Integer.class, lane.defaultThreads));
+            AtomicInteger seq = new AtomicInteger();
+            executors.put(lane, new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(capacity), r -> {
+                        Thread t = new Thread(r, "task-db-" + name + "-" + seq.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    }));
+        }
+    }
+
+    /** Runs {@code call} on the lane's pool; see the class comment for rejection, timeout and cancellation. */
+    public <T> CompletableFuture<T> submit(Lane lane, Supplier<T> call) {
+        ThreadPoolExecutor executor = executors.get(lane);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> work;
+        try {
+            work = executor.submit(() -> {
+                if (result.isDone()) {
+                    return;
+                }
+                try {
+                    result.complete(call.get());
+                } catch (RuntimeException | Error ex) {
+                    result.completeExceptionally(ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            result.completeExceptionally(new DatabaseBusyException("async-" + lane.name().toLowerCase(Locale.ROOT),
+                    "Too many queued database calls (" + executor.getQueue().size() + ")"));
+            return result;
+        }
+        // Only unstarted calls are dropped; see the class comment.
+        result.whenComplete((value, ex) -> work.cancel(false));
+        if (lane != Lane.WRITE && !timeout.isZero() && !timeout.isNegative()) {
+            result.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        return result;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        for (ThreadPoolExecutor executor : executors.values()) {
+            executor.shutdown();
+        }
+        for (ThreadPoolExecutor executor : executors.values()) {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.wodendev.springbackend.service;
+
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ids for tasks created without one ({@code app.tasks.id-strategy}):
+ * <ul>
+ *   <li>{@code uuid}: random UUIDv4, 36 characters (the original behaviour)</li>
+ *   <li>{@code uuidv7}: time-ordered UUIDv7 (RFC 9562), 36 characters</li>
+ *   <li>{@code ulid}: time-ordered, 26 Crockford base32 characters</li>
+ * </ul>
+ * Random ids land all over the primary key B-tree; time-ordered ones append to
+ * its right edge, so inserts touch the same few pages and pages stay full. Ids
+ * remain strings, so existing ids and client-supplied ids keep working.
+ *
+ * Both time-ordered forms carry the millisecond timestamp followed by a 12-bit
+ * sequence, so ids from this process are strictly increasing even within a
+ * millisecond; the remaining bits are random.
+ */
+@Service
+public class TaskIdGenerator {
+    public enum Strategy { UUID, UUIDV7, ULID }
+
+    private static final char[] CROCKFORD = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private final Strategy strategy;
+    // (unix millis << 12) | sequence of the last time-ordered id.
+    private final AtomicLong last = new AtomicLong();
+
+    public TaskIdGenerator(Environment env) {
+        String configured = env.getProperty("app.tasks.id-strategy", "uuid");
+        try {
+            this.strategy = Strategy.valueOf(configured.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("app.tasks.id-strategy must be uuid, uuidv7 or ulid, got " + configured);
+        }
+    }
+
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    public String next() {
+        return switch (strategy) {
+            case UUID -> java.util.UUID.randomUUID().toString();
+            case UUIDV7 -> uuidV7().toString();
+            case ULID -> ulid();
+        };
+    }
+
+    private long nextTimeAndSequence() {
+        long now = System.currentTimeMillis() << 12;
+        while (true) {
+            long prev = last.get();
+            // Past 4096 ids in one millisecond (or a clock step back) the timestamp runs ahead by a tick.
+            long next = now > prev ? now : prev + 1;
+            if (last.compareAndSet(prev, next)) {
+                return next;
+            }
+        }
+    }
+
+    private UUID uuidV7() {
+        long timeAndSeq = nextTimeAndSequence();
+        long msb = ((timeAndSeq >>> 12) << 16) | 0x7000L | (timeAndSeq & 0xFFFL);
+        long lsb = (ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+
+    private String ulid() {
+        long timeAndSeq = nextTimeAndSequence();
+        long random = ThreadLocalRandom.current().nextLong();
+        // 128 bits: 48-bit millis, 12-bit sequence, 68 random bits.
+        long hi = (timeAndSeq << 4) | (random >>> 60);
+        long lo = ThreadLocalRandom.current().nextLong();
+        char[] out = new char[26];
+        for (int i = 25; i >= 0; i--) {
+            int bit = (25 - i) * 5;
+            int value;
+            if (bit + 5 <= 64) {
+                value = (int) (lo >>> bit) & 0x1F;
+            } else if (bit < 64) {
+                value = (int) ((lo >>> bit) | (hi << (64 - bit))) & 0x1F;
+            } else {
+                value = (int) (hi >>> (bit - 64)) & 0x1F;
+            }
+            out[i] = CROCKFORD[value];
+        }
+        return new String(out);
+    }
+}
@@ -0,0 +1,284 @@
+package com.wodendev.springbackend.service;
+
+import com.wodendev.springbackend.dto.BatchItemResult;
+import com.wodendev.springbackend.dto.ImportSummary;
+import com.wodendev.springbackend.entity.Task;
+import com.wodendev.springbackend.exception.DatabaseExceptionHelper;
+import com.wodendev.springbackend.exception.DatabaseOperationException;
+
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Imports tasks from a streamed NDJSON or CSV body. The body is read one record
+ * at a time and written in batches of {@code app.import.batch-size}, each in its
+ * own transaction through {@link TaskService#createAll}. Nothing is read ahead
+ * of the batch being written, so a slow database pushes back on the client
+ * through the socket instead of buffering the upload.
+ *
+ * CSV input needs a header row naming some of: id, text, day, reminder. A
+ * quoted field may span lines, up to {@code app.import.csv.max-record-lines}
+ * lines and {@code app.import.csv.max-record-chars} characters per record; a
+ * record over either limit, or still open at the end of the body, is rejected
+ * and reading resumes on the next line.
+ */
+@Service
+public class TaskImportService {
+    public enum Format { NDJSON, CSV }
+
+    private final TaskService taskService;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int maxReportedErrors;
+    private final int maxRecordLines;
+    private final int maxRecordChars;
+
+    public TaskImportService(TaskService taskService, ObjectMapper objectMapper, Environment env) {
+        this.taskService = taskService;
+        this.objectMapper = objectMapper;
+        int maxItems = env.getProperty("app.batch.max-items", Integer.class, 10_000);
+        this.batchSize = Math.max(1, Math.min(maxItems, env.getProperty("app.import.batch-size", Integer.class, 1_000)));
+        this.maxReportedErrors = env.getProperty("app.import.max-reported-errors", Integer.class, 100);
+        this.maxRecordLines = Math.max(1, env.getProperty("app.import.csv.max-record-lines", Integer.class, 100));
+        this.maxRecordChars = Math.max(1, env.getProperty("app.import.csv.max-record-chars", Integer.class, 65_536));
+    }
+
+    public static Format resolveFormat(String format, String contentType) {
+        String hint = (format != null && !format.isBlank()) ? format : contentType;
+        if (hint == null) {
+            return Format.NDJSON;
+        }
+        String lower = hint.toLowerCase(Locale.ROOT);
+        if (lower.contains("csv")) {
+            return Format.CSV;
+        }
+        if (lower.contains("ndjson") || lower.contains("jsonl") || lower.contains("json")) {
+            return Format.NDJSON;
+        }
+        throw new IllegalArgumentException("Unsupported import format: " + hint);
+    }
+
+    public ImportSummary importStream(InputStream body, Format format) throws IOException {
+        Run run = new Run();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            readCsv(reader, run);
+        } else {
+            readNdjson(reader, run);
+        }
+        run.flush();
+        return new ImportSummary(run.lineNo, run.imported, run.rejected, run.errors);
+    }
+
+    private void readNdjson(BufferedReader reader, Run run) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            run.lineNo++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                Task task = objectMapper.readValue(line, Task.class);
+                if (task == null) {
+                    run.reject(run.lineNo, "Expected a JSON object");
+                } else {
+                    run.add(task, run.lineNo);
+                }
+            } catch (JacksonException ex) {
+                run.reject(run.lineNo, "Invalid JSON: " + ex.getOriginalMessage());
+            }
+        }
+    }
+
+    private void readCsv(BufferedReader reader, Run run) throws IOException {
+        Map<String, Integer> header = null;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            run.lineNo++;
+            long recordLine = run.lineNo;
+            if (line.isBlank()) {
+                continue;
+            }
+            // A quoted field may span lines; keep feeding lines until its closing quote.
+            CsvRecord record = new CsvRecord();
+            String error = null;
+            while (!record.feed(line)) {
+                if (record.lines >= maxRecordLines || record.chars > maxRecordChars) {
+                    error = "Quoted field exceeds " + maxRecordLines + " lines or " + maxRecordChars + " characters";
+                    break;
+                }
+                line = reader.readLine();
+                if (line == null) {
+                    error = "Unterminated quoted field at end of input";
+                    break;
+                }
+                run.lineNo++;
+            }
+            if (error == null && record.chars > maxRecordChars) {
+                error = "Record exceeds " + maxRecordChars + " characters";
+            }
+            if (error != null) {
+                if (header == null) {
+                    throw new IllegalArgumentException("CSV header: " + error);
+                }
+                run.reject(recordLine, error);
+                continue;
+            }
+            List<String> fields = record.fields;
+
+            if (header == null) {
+                header = new HashMap<>();
+                for (int i = 0; i < fields.size(); i++) {
+                    header.put(fields.get(i).trim().toLowerCase(Locale.ROOT), i);
+                }
+                if (!header.containsKey("text")) {
+                    throw new IllegalArgumentException("CSV header must contain a text column");
+                }
+                continue;
+            }
+
+            Task task = new Task();
+            task.setId(field(fields, header, "id"));
+            task.setText(field(fields, header, "text"));
+            task.setDay(field(fields, header, "day"));
+            String reminder = field(fields, header, "reminder");
+            task.setReminder(reminder != null && (reminder.equalsIgnoreCase("true") || reminder.equals("1") || reminder.equalsIgnoreCase("yes")));
+            run.add(task, recordLine);
+        }
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> header, String name) {
+        Integer index = header.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * One CSV record (RFC 4180 quoting) split into {@link #fields}, fed a line at
+     * a time so a multi-line record is parsed once, not re-parsed per line.
+     */
+    private static final class CsvRecord {
+        private final List<String> fields = new ArrayList<>();
+        private final StringBuilder cur = new StringBuilder();
+        private boolean quoted;
+        private int lines;
+        private long chars;
+
+        /** Returns false when the line ends inside a quoted field and more lines are needed. */
+        boolean feed(String line) {
+            if (lines++ > 0) {
+                cur.append('\n');
+            }
+            chars += line.length();
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"') {
+                        if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                            cur.append('"');
+                            i++;
+                        } else {
+                            quoted = false;
+                        }
+                    } else {
+                        cur.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(cur.toString());
+                    cur.setLength(0);
+                } else if (c != '\r') {
+                    cur.append(c);
+                }
+            }
+            if (quoted) {
+                return false;
+            }
+            fields.add(cur.toString());
+            return true;
+        }
+    }
+
+    /** Per-request state: the pending batch and the running counts. */
+    private final class Run {
+        private final List<Task> batch = new ArrayList<>(batchSize);
+        private final List<Long> batchLines = new ArrayList<>(batchSize);
+        private final List<ImportSummary.RejectedLine> errors = new ArrayList<>();
+        private long lineNo;
+        private long imported;
+        private long rejected;
+
+        void add(Task task, long line) {
+            batch.add(task);
+            batchLines.add(line);
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long line, String reason) {
+            rejected++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ImportSummary.RejectedLine(line, reason));
+            }
+        }
+
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                record(taskService.createAll(batch));
+            } catch (DatabaseOperationException ex) {
+                // Busy, locked or lost connections fail the import; retrying row by row would only add load.
+                if (!DatabaseExceptionHelper.isConstraintViolation(ex)) {
+                    throw ex;
+                }
+                // One bad row (a duplicate id, say) rolls the batch back; retry row by row to isolate it.
+                for (int i = 0; i < batch.size(); i++) {
+                    try {
+                        record(i, taskService.createAll(List.of(batch.get(i))).get(0));
+                    } catch (DatabaseOperationException rowEx) {
+                        if (!DatabaseExceptionHelper.isConstraintViolation(rowEx)) {
+                            throw rowEx;
+                        }
+                        reject(batchLines.get(i), rowEx.getErrorCode() + ": " + rowEx.getMessage());
+                    }
+                }
+            }
+            batch.clear();
+            batchLines.clear();
+        }
+
+        private void record(List<BatchItemResult> results) {
+            for (BatchItemResult result : results) {
+                record(result.index(), result);
+            }
+        }
+
+        private void record(int index, BatchItemResult result) {
+            if (BatchItemResult.CREATED.equals(result.status())) {
+                imported++;
+            } else {
+                reject(batchLines.get(index), result.message());
+            }
+        }
+    }
+}
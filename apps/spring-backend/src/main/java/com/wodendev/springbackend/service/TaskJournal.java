@@ -0,0 +1,426 @@
+package com.wodendev.springbackend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Durability for {@link MemoryTaskStore}: an append-only log of row writes and
+ * deletes plus periodic snapshots, all in one directory.
+ * <ul>
+ *   <li>{@code snapshot-<gen>.bin}: every row and tombstone as of the start of
+ *       {@code log-<gen>.bin}, followed by a CRC32 of the whole file</li>
+ *   <li>{@code log-<gen>.bin}: one frame per commit (length, CRC32, records), so a
+ *       batch is replayed whole or not at all</li>
+ * </ul>
+ * Recovery loads the newest snapshot and replays every log from its generation on.
+ * A frame cut short by a crash can only end the newest log, and is truncated away.
+ * Snapshots are written to a temporary file and renamed into place; older files
+ * are deleted only after that.
+ *
+ * Not thread-safe: the store calls everything except {@link #writeSnapshot} under
+ * its write lock.
+ */
+final class TaskJournal implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(TaskJournal.class);
+
+    /** Receives recovered records in write order. */
+    interface Replay {
+        void put(MemoryTaskStore.Row row);
+
+        void delete(String id, long version);
+    }
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final int SNAPSHOT_MAGIC = 0x5441534B;
+    private static final int SNAPSHOT_FORMAT = 1;
+    private static final String LOG = "log-";
+    private static final String SNAPSHOT = "snapshot-";
+    private static final String SUFFIX = ".bin";
+
+    private final Path dir;
+    private final boolean fsync;
+    private final ByteArrayOutputStream pendingBytes = new ByteArrayOutputStream();
+    private final DataOutputStream pending = new DataOutputStream(pendingBytes);
+    private int pendingRecords;
+
+    private FileChannel log;
+    private long generation;
+    private long logSize;
+
+    TaskJournal(Path dir, boolean fsync) {
+        this.dir = dir;
+        this.fsync = fsync;
+    }
+
+    Path getDir() {
+        return dir;
+    }
+
+    /** Replays the directory into {@code replay} and opens the newest log for appending. */
+    void recover(Replay replay) throws IOException {
+        Files.createDirectories(dir);
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path tmp : files.filter(f -> f.getFileName().toString().endsWith(".tmp")).toList()) {
+                Files.deleteIfExists(tmp);
+            }
+        }
+
+        long snapshot = generations(SNAPSHOT).stream().mapToLong(Long::longValue).max().orElse(0);
+        if (snapshot > 0) {
+            readSnapshot(file(SNAPSHOT, snapshot), replay);
+        }
+        List<Long> logs = generations(LOG).stream().filter(g -> g >= snapshot).sorted().toList();
+        long newest = logs.isEmpty() ? Math.max(snapshot, 1) : logs.getLast();
+        for (long gen : logs) {
+            Path path = file(LOG, gen);
+            long size = Files.size(path);
+            long good = replayLog(path, size, replay);
+            if (good < size) {
+                if (gen != newest) {
+                    throw new IOException("Corrupt frame in " + path + " at offset " + good);
+                }
+                logger.warn("Dropping an incomplete frame at the end of {} ({} bytes)", path, size - good);
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                    channel.truncate(good);
+                    channel.force(true);
+                }
+            }
+        }
+        deleteBefore(snapshot);
+
+        generation = newest;
+        log = FileChannel.open(file(LOG, generation), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        logSize = log.size();
+        log.position(logSize);
+    }
+
+    void put(MemoryTaskStore.Row row) {
+        try {
+            writeRow(pending, row);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        pendingRecords++;
+    }
+
+    void delete(String id, long version) {
+        try {
+            writeDelete(pending, id, version);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        pendingRecords++;
+    }
+
+    /** Writes the records added since the last commit as one frame and, with fsync on, forces it to disk. */
+    void commit() throws IOException {
+        if (pendingRecords == 0) {
+            return;
+        }
+        try {
+            byte[] records = pendingBytes.toByteArray();
+            CRC32 crc = new CRC32();
+            ByteBuffer count = ByteBuffer.allocate(4).putInt(0, pendingRecords);
+            crc.update(count.array());
+            crc.update(records);
+
+            ByteBuffer frame = ByteBuffer.allocate(12 + records.length);
+            frame.putInt(4 + records.length).putInt((int) crc.getValue()).putInt(pendingRecords).put(records).flip();
+            try {
+                while (frame.hasRemaining()) {
+                    log.write(frame);
+                }
+                if (fsync) {
+                    log.force(false);
+                }
+            } catch (IOException ex) {
+                // Cut off whatever part of the frame made it, so the next commit starts on a frame boundary.
+                try {
+                    log.truncate(logSize);
+                } catch (IOException truncateFailure) {
+                    ex.addSuppressed(truncateFailure);
+                }
+                throw ex;
+            }
+            logSize += frame.capacity();
+        } finally {
+            pendingBytes.reset();
+            pendingRecords = 0;
+        }
+    }
+
+    boolean hasWrites() {
+        return logSize > 0;
+    }
+
+    /** Starts the next log; returns its generation, which the matching snapshot must carry. */
+    long rotate() throws IOException {
+        long next = generation + 1;
+        FileChannel nextLog = FileChannel.open(file(LOG, next),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        log.force(false);
+        log.close();
+        log = nextLog;
+        generation = next;
+        logSize = 0;
+        return next;
+    }
+
+    /** Writes the state captured at {@link #rotate()} and drops the files it replaces. */
+    void writeSnapshot(long gen, Collection<MemoryTaskStore.Row> rows, Map<Long, String> tombstones) throws IOException {
+        Path target = file(SNAPSHOT, gen);
+        Path tmp = dir.resolve(target.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (OutputStream file = Files.newOutputStream(tmp)) {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file, 1 << 16), crc);
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_FORMAT);
+            out.writeInt(rows.size());
+            for (MemoryTaskStore.Row row : rows) {
+                writeRow(out, row);
+            }
+            out.writeInt(tombstones.size());
+            for (Map.Entry<Long, String> tombstone : tombstones.entrySet()) {
+                writeDelete(out, tombstone.getValue(), tombstone.getKey());
+            }
+            out.flush();
+            new DataOutputStream(file).writeLong(crc.getValue());
+        }
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        syncDir();
+        deleteBefore(gen);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (log != null) {
+            log.force(false);
+            log.close();
+        }
+    }
+
+    private long replayLog(Path path, long size, Replay replay) throws IOException {
+        long offset = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            while (offset + 8 <= size) {
+                int length = in.readInt();
+                int expected = in.readInt();
+                if (length < 4 || length > size - offset - 8) {
+                    break;
+                }
+                byte[] body = in.readNBytes(length);
+                CRC32 crc = new CRC32();
+                crc.update(body);
+                if ((int) crc.getValue() != expected) {
+                    break;
+                }
+                DataInputStream records = new DataInputStream(new ByteArrayInputStream(body));
+                int count = records.readInt();
+                for (int i = 0; i < count; i++) {
+                    readRecord(records, replay);
+                }
+                offset += 8 + length;
+            }
+        }
+        return offset;
+    }
+
+    private void readSnapshot(Path path, Replay replay) throws IOException {
+        long size = Files.size(path);
+        CRC32 crc = new CRC32();
+        try (InputStream file = Files.newInputStream(path)) {
+            BoundedInputStream body = new BoundedInputStream(new BufferedInputStream(file, 1 << 16), size - 8);
+            DataInputStream in = new DataInputStream(new CheckedInputStream(body, crc));
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_FORMAT) {
+                throw new IOException("Not a task snapshot: " + path);
+            }
+            int rows = in.readInt();
+            for (int i = 0; i < rows; i++) {
+                readRecord(in, replay);
+            }
+            int tombstones = in.readInt();
+            for (int i = 0; i < tombstones; i++) {
+                readRecord(in, replay);
+            }
+            long computed = crc.getValue();
+            long stored = new DataInputStream(body.source).readLong();
+            if (computed != stored) {
+                throw new IOException("Checksum mismatch in " + path);
+            }
+        } catch (EOFException ex) {
+            throw new IOException("Truncated task snapshot: " + path, ex);
+        }
+    }
+
+    private static void readRecord(DataInputStream in, Replay replay) throws IOException {
+        byte type = in.readByte();
+        long version = in.readLong();
+        String id = readString(in);
+        if (type == DELETE) {
+            replay.delete(id, version);
+            return;
+        }
+        if (type != PUT) {
+            throw new IOException("Unknown journal record type " + type);
+        }
+        String text = readString(in);
+        String day = readString(in);
+        boolean reminder = in.readBoolean();
+        LocalDateTime createdAt = readTime(in);
+        LocalDateTime updatedAt = readTime(in);
+        replay.put(new MemoryTaskStore.Row(id, text, day, reminder, createdAt, updatedAt, version));
+    }
+
+    private static void writeRow(DataOutputStream out, MemoryTaskStore.Row row) throws IOException {
+        out.writeByte(PUT);
+        out.writeLong(row.version());
+        writeString(out, row.id());
+        writeString(out, row.text());
+        writeString(out, row.day());
+        out.writeBoolean(row.reminder());
+        writeTime(out, row.createdAt());
+        writeTime(out, row.updatedAt());
+    }
+
+    private static void writeDelete(DataOutputStream out, String id, long version) throws IOException {
+        out.writeByte(DELETE);
+        out.writeLong(version);
+        writeString(out, id);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        return length < 0 ? null : new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    private static void writeTime(DataOutputStream out, LocalDateTime time) throws IOException {
+        out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(time.getNano());
+    }
+
+    private static LocalDateTime readTime(DataInputStream in) throws IOException {
+        long seconds = in.readLong();
+        int nanos = in.readInt();
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+
+    private Path file(String prefix, long gen) {
+        return dir.resolve(prefix + gen + SUFFIX);
+    }
+
+    private List<Long> generations(String prefix) throws IOException {
+        List<Long> gens = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path f : files.toList()) {
+                String name = f.getFileName().toString();
+                if (name.startsWith(prefix) && name.endsWith(SUFFIX)) {
+                    try {
+                        gens.add(Long.parseLong(name.substring(prefix.length(), name.length() - SUFFIX.length())));
+                    } catch (NumberFormatException ignored) {
+                        // Not one of ours.
+                    }
+                }
+            }
+        }
+        return gens;
+    }
+
+    private void deleteBefore(long gen) throws IOException {
+        for (String prefix : new String[]{LOG, SNAPSHOT}) {
+            for (long old : generations(prefix)) {
+                if (old < gen) {
+                    Files.deleteIfExists(file(prefix, old));
+                }
+            }
+        }
+    }
+
+    /** Makes the rename durable where the platform allows opening a directory (not on Windows). */
+    private void syncDir() {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ex) {
+            logger.debug("Could not sync {}: {}", dir, ex.getMessage());
+        }
+    }
+
+    /** Hides the trailing checksum from the checked stream. */
+    private static final class BoundedInputStream extends InputStream {
+        private final InputStream source;
+        private long remaining;
+
+        BoundedInputStream(InputStream source, long limit) {
+            this.source = source;
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = source.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buf, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = source.read(buf, off, (int) Math.min(len, remaining));
+            if (n > 0) {
+                remaining -= n;
+            }
+            return n;
+        }
+    }
+}
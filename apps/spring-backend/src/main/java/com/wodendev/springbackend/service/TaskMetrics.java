@@ -0,0 +1,93 @@
+package com.wodendev.springbackend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the SQL behind each task operation ({@code task.sql}, tagged with
+ * operation and outcome, p50/p99/p999 plus Prometheus histogram buckets) and a
+ * {@code task.errors} counter per error code. Endpoint latency comes from
+ * Spring's http.server.requests.
+ *
+ * Every meter is registered up front and looked up by enum ordinal, so
+ * recording is two nanoTime reads and an array index with no tag allocation.
+ */
+@Service
+public class TaskMetrics {
+    public enum Op {
+        CREATE("create"),
+        FIND_ONE("findOne"),
+        FIND_ALL("findAll"),
+        FIND_AFTER("findAfter"),
+        EXPORT("export"),
+        UPDATE("update"),
+        REMOVE("remove"),
+        REMOVE_BY_NAME("removeByName"),
+        BATCH_INSERT("batchInsert"),
+        BATCH_UPDATE("batchUpdate"),
+        BATCH_DELETE("batchDelete");
+
+        private final String tag;
+
+        Op(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private static final String[] KNOWN_ERROR_CODES = {
+            "TASK_CREATE_FAILED", "TASK_QUERY_FAILED", "TASK_UPDATE_FAILED", "TASK_DELETE_FAILED",
+            "DB_CONNECTION_FAILED", "DB_LOCKED", "DB_BUSY"
+    };
+
+    private final MeterRegistry registry;
+    private final Timer[] success;
+    private final Timer[] failure;
+    private final Map<String, Counter> errors = new ConcurrentHashMap<>();
+
+    public TaskMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        Op[] ops = Op.values();
+        this.success = new Timer[ops.length];
+        this.failure = new Timer[ops.length];
+        for (Op op : ops) {
+            success[op.ordinal()] = timer(op, "success");
+            failure[op.ordinal()] = timer(op, "error");
+        }
+        for (String code : KNOWN_ERROR_CODES) {
+            errorCounter(code);
+        }
+    }
+
+    /** Records the time since {@code startNanos} (a {@link System#nanoTime()} value). */
+    public void record(Op op, long startNanos, boolean ok) {
+        (ok ? success : failure)[op.ordinal()].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordError(String code) {
+        errorCounter(code == null ? "UNKNOWN" : code).increment();
+    }
+
+    private Counter errorCounter(String code) {
+        return errors.computeIfAbsent(code, c -> Counter.builder("task.errors")
+                .description("Failed task requests by error code")
+                .tag("code", c)
+                .register(registry));
+    }
+
+    private Timer timer(Op op, String outcome) {
+        return Timer.builder("task.sql")
+                .description("Time spent in the SQL of a task operation")
+                .tag("operation", op.tag)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
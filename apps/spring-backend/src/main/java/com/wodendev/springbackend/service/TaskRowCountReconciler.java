@@ -0,0 +1,82 @@
+package com.wodendev.springbackend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every {@code app.tasks.row-count.reconcile-interval}, recounts the tasks table
+ * and corrects the maintained row count (see {@link Schema}) if it has drifted,
+ * e.g. after rows were changed by a tool that dropped the triggers. The recount is
+ * a single UPDATE on the writer, so it cannot race with a concurrent insert.
+ */
+@Service
+@Lazy(false) // nothing injects it; with spring.main.lazy-initialization it would never start
+public class TaskRowCountReconciler implements InitializingBean, DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(TaskRowCountReconciler.class);
+
+    private final JdbcTemplate jdbc;
+    private final Schema schema;
+    private final TaskCache taskCache;
+    private final Duration interval;
+
+    private ScheduledExecutorService executor;
+
+    public TaskRowCountReconciler(JdbcTemplate jdbc, Schema schema, TaskCache taskCache, Environment env) {
+        this.jdbc = jdbc;
+        this.schema = schema;
+        this.taskCache = taskCache;
+        this.interval = env.getProperty("app.tasks.row-count.reconcile-interval", Duration.class, Duration.ofMinutes(10));
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (schema.getSql().reconcileCount() == null || interval.isZero() || interval.isNegative()) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "task-row-count");
+            t.setDaemon(true);
+            return t;
+        });
+        long millis = interval.toMillis();
+        executor.scheduleWithFixedDelay(this::reconcile, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /** Returns true if the counter was off and has been corrected. */
+    public boolean reconcile() {
+        String sql = schema.getSql().reconcileCount();
+        if (sql == null) {
+            return false;
+        }
+        try {
+            if (jdbc.update(sql) == 0) {
+                return false;
+            }
+            logger.warn("Maintained task row count had drifted from COUNT(*); corrected");
+            taskCache.evictPages();
+            return true;
+        } catch (DataAccessException ex) {
+            logger.warn("Task row count reconciliation failed: {}", ex.getMessage());
+            return false;
+        }
+    }
+}
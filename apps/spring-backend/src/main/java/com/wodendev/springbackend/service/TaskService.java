@@ -1,40 +1,38 @@
 package com.wodendev.springbackend.service;
 
+import com.wodendev.springbackend.dto.BatchItemResult;
+import com.wodendev.springbackend.dto.CursorPage;
+import com.wodendev.springbackend.dto.TaskChanges;
 import com.wodendev.springbackend.entity.Task;
 import com.wodendev.springbackend.exception.DatabaseExceptionHelper;
 
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.core.env.Environment;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.dao.DataAccessException;
-import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
 public class TaskService {
-    private final JdbcTemplate jdbc;
-    private final Schema schema;
-    private static final RowMapper<Task> ROW_MAPPER = new RowMapper<>() {
-        @Override
-        public Task mapRow(ResultSet rs, int rowNum) throws SQLException {
-            Task t = new Task();
-            t.setId(rs.getString("id"));
-            t.setText(rs.getString("text"));
-            t.setDay(rs.getString("day"));
-            t.setReminder(rs.getBoolean("reminder"));
-            return t;
-        }
-    };
+    private final TaskStore store;
+    private final TaskCache taskCache;
+    private final TaskWriteQueue writeQueue;
+    private final Environment env;
+    private final TaskMetrics taskMetrics;
+    private final TaskChangeFeed changeFeed;
+    private final TaskIdGenerator idGenerator;
 
     public Task create(Task task) {
         if (task == null) {
@@ -42,117 +40,470 @@ public class TaskService {
         }
 
         if (!StringUtils.hasText(task.getId())) {
-            task.setId(UUID.randomUUID().toString());
+            task.setId(idGenerator.next());
         }
-
-        Schema s = schema;
-        StringBuilder cols = new StringBuilder("id, text, day, reminder");
-        StringBuilder vals = new StringBuilder("?, ?, ?, ?");
-        if (s.getCreatedAtColumn() != null) {
-            cols.append(", ").append(s.getCreatedAtColumn());
-            vals.append(", CURRENT_TIMESTAMP");
-        }
-        if (s.getUpdatedAtColumn() != null) {
-            cols.append(", ").append(s.getUpdatedAtColumn());
-            vals.append(", CURRENT_TIMESTAMP");
+        if (writeQueue.isEnabled()) {
+            return await(enqueueCreate(task));
         }
 
+        long start = System.nanoTime();
         try {
-            String sql = "INSERT INTO tasks(" + cols + ") VALUES(" + vals + ")";
-            jdbc.update(sql, task.getId(), task.getText(), task.getDay(), task.isReminder() ? 1 : 0);
+            store.insert(task);
+            taskMetrics.record(TaskMetrics.Op.CREATE, start, true);
+            taskCache.evictPages();
+            changeFeed.created(task);
             return task;
         } catch (DataAccessException ex) {
+            taskMetrics.record(TaskMetrics.Op.CREATE, start, false);
             throw DatabaseExceptionHelper.wrapOperation("TASK_CREATE_FAILED", "create", ex);
         }
     }
 
+    /**
+     * Queues the insert on the write pipeline (when {@code app.write-queue.enabled}).
+     * The future completes once the insert is committed.
+     */
+    public CompletableFuture<Task> createQueued(Task task) {
+        if (task == null) {
+            throw new IllegalArgumentException("Task must not be null");
+        }
+        if (!StringUtils.hasText(task.getId())) {
+            task.setId(idGenerator.next());
+        }
+        if (!writeQueue.isEnabled()) {
+            return CompletableFuture.completedFuture(create(task));
+        }
+        return enqueueCreate(task);
+    }
+
+    private CompletableFuture<Task> enqueueCreate(Task task) {
+        return writeQueue.submitCreate(task).thenApply(created -> {
+            taskCache.evictPages();
+            changeFeed.created(created);
+            return created;
+        });
+    }
+
     public Page<Task> findAll(Integer page, Integer limit, String search) {
+        return findAll(page, limit, search, null);
+    }
+
+    /**
+     * @param countLimit when searching, stop counting matches at this many; the
+     *                   page total is then at most countLimit. Ignored without a
+     *                   search term, whose total is always exact.
+     */
+    public Page<Task> findAll(Integer page, Integer limit, String search, Integer countLimit) {
+        return findAll(page, limit, search, countLimit, null);
+    }
+
+    /**
+     * @param version the {@link #tableVersion} the caller tags the page with. Cached
+     *                pages are kept per version, so a page cached before a write
+     *                is never served under the version that write produced.
+     */
+    public Page<Task> findAll(Integer page, Integer limit, String search, Integer countLimit, Long version) {
         int p = (page == null || page < 1) ? 1 : page;
         int l = (limit == null || limit < 1) ? 10 : limit;
+        Integer cap = (countLimit == null || countLimit < 1) ? null : countLimit;
+        return taskCache.findAll(p, l, search, cap, version, () -> queryPage(p, l, search, cap));
+    }
+
+    private Page<Task> queryPage(int p, int l, String search, Integer countLimit) {
         int offset = (p - 1) * l;
 
-        Schema s = schema;
+        long start = System.nanoTime();
+        try {
+            long total = store.count(search, countLimit);
+            List<Task> rows = store.page(search, l, offset);
+            taskMetrics.record(TaskMetrics.Op.FIND_ALL, start, true);
 
-        String where = "";
-        Object[] paramsCount;
-        Object[] paramsRows;
-        if (search != null && !search.trim().isEmpty()) {
-            where = " WHERE text LIKE ? ";
-            String like = "%" + search.trim() + "%";
-            paramsCount = new Object[]{like};
-            paramsRows = new Object[]{like, l, offset};
-        } else {
-            paramsCount = new Object[]{};
-            paramsRows = new Object[]{l, offset};
+            return new PageImpl<>(rows, org.springframework.data.domain.PageRequest.of(p - 1, l), total);
+        } catch (DataAccessException ex) {
+            taskMetrics.record(TaskMetrics.Op.FIND_ALL, start, false);
+            throw DatabaseExceptionHelper.wrapOperation("TASK_QUERY_FAILED", "findAll", ex);
         }
+    }
+
+    /** Receives one offset page straight from the store's cursor; see {@link #streamPage}. */
+    public interface PageSink {
+        /** Called once before any row, with the same page and limit findAll would use. */
+        void begin(long total, int page, int limit);
+
+        void row(String id, String text, String day, boolean reminder);
 
+        void end();
+    }
+
+    /**
+     * {@link #findAll} without building Task objects or a Page: the count and each
+     * row go straight to {@code sink} while the store's cursor is open. Bypasses the
+     * page cache.
+     */
+    public void streamPage(Integer page, Integer limit, String search, PageSink sink) {
+        int p = (page == null || page < 1) ? 1 : page;
+        int l = (limit == null || limit < 1) ? 10 : limit;
+        int offset = (p - 1) * l;
+
+        long start = System.nanoTime();
         try {
-            String countSql = "SELECT COUNT(*) FROM tasks" + where;
-            Long totalObj;
-            if (where.isEmpty()) {
-                totalObj = jdbc.queryForObject(countSql, Long.class);
-            } else {
-                totalObj = jdbc.queryForObject(countSql, Long.class, paramsCount);
-            }
-            long total = (totalObj != null) ? totalObj.longValue() : 0L;
+            sink.begin(store.count(search, null), p, l);
+            store.page(search, l, offset, sink);
+            sink.end();
+            taskMetrics.record(TaskMetrics.Op.FIND_ALL, start, true);
+        } catch (DataAccessException ex) {
+            taskMetrics.record(TaskMetrics.Op.FIND_ALL, start, false);
+            throw DatabaseExceptionHelper.wrapOperation("TASK_QUERY_FAILED", "findAll", ex);
+        }
+    }
 
-            String orderBy;
-            if (s.getCreatedAtColumn() != null) {
-                orderBy = s.getCreatedAtColumn();
-            } else if (s.getUpdatedAtColumn() != null) {
-                orderBy = s.getUpdatedAtColumn();
-            } else {
-                orderBy = "id";
+    /**
+     * Keyset variant of {@link #findAll}: rows come in the same newest-first order,
+     * but each page seeks past the (sort column, id) of the previous page's last row
+     * instead of skipping OFFSET rows, so page cost does not grow with depth.
+     * Rows whose sort column is NULL are listed after all others.
+     */
+    public CursorPage<Task> findAfter(String cursor, Integer limit, String search, boolean includeTotal) {
+        int l = (limit == null || limit < 1) ? 10 : limit;
+        TaskCursor after = TaskCursor.decode(cursor);
+
+        long start = System.nanoTime();
+        try {
+            List<TaskStore.KeyedTask> rows = store.seek(after, search, l + 1);
+
+            String nextCursor = null;
+            if (rows.size() > l) {
+                rows = rows.subList(0, l);
+                TaskStore.KeyedTask last = rows.get(l - 1);
+                nextCursor = new TaskCursor(last.sortKey(), last.task().getId()).encode();
             }
 
-            // Only select columns we actually map, to stay compatible with legacy schemas.
-            String sql = "SELECT id, text, day, reminder FROM tasks" + where + " ORDER BY " + orderBy + " DESC LIMIT ? OFFSET ?";
-            List<Task> rows = jdbc.query(sql, ROW_MAPPER, paramsRows);
+            Long total = includeTotal ? store.count(search, null) : null;
+            taskMetrics.record(TaskMetrics.Op.FIND_AFTER, start, true);
 
-            return new PageImpl<>(rows, org.springframework.data.domain.PageRequest.of(p - 1, l), total);
+            return new CursorPage<>(rows.stream().map(TaskStore.KeyedTask::task).toList(), nextCursor, l, total);
         } catch (DataAccessException ex) {
-            throw DatabaseExceptionHelper.wrapOperation("TASK_QUERY_FAILED", "findAll", ex);
+            taskMetrics.record(TaskMetrics.Op.FIND_AFTER, start, false);
+            throw DatabaseExceptionHelper.wrapOperation("TASK_QUERY_FAILED", "findAfter", ex);
+        }
+    }
+
+    /**
+     * Streams every task (or every task updated at or after {@code updatedSince})
+     * to {@code sink} straight off a forward-only cursor, so memory use does not
+     * depend on table size. Unlike the list endpoints, rows carry their
+     * createdAt/updatedAt values so clients can pick the next incremental bound.
+     */
+    public void exportAll(LocalDateTime updatedSince, Consumer<Task> sink) {
+        // Includes the time the sink spends writing rows to the client.
+        long start = System.nanoTime();
+        try {
+            store.export(updatedSince, sink);
+            taskMetrics.record(TaskMetrics.Op.EXPORT, start, true);
+        } catch (DataAccessException ex) {
+            taskMetrics.record(TaskMetrics.Op.EXPORT, start, false);
+            throw DatabaseExceptionHelper.wrapOperation("TASK_QUERY_FAILED", "exportAll", ex);
         }
     }
 
     public Optional<Task> findOne(String id) {
+        return taskCache.findOne(id, this::queryOne);
+    }
+
+    private Optional<Task> queryOne(String id) {
+        long start = System.nanoTime();
         try {
-            String sql = "SELECT id, text, day, reminder FROM tasks WHERE id = ?";
-            List<Task> list = jdbc.query(sql, ROW_MAPPER, id);
-            return list.isEmpty() ? Optional.empty() : Optional.of(list.get(0));
+            Optional<Task> task = store.findOne(id);
+            taskMetrics.record(TaskMetrics.Op.FIND_ONE, start, true);
+            return task;
         } catch (DataAccessException ex) {
+            taskMetrics.record(TaskMetrics.Op.FIND_ONE, start, false);
             throw DatabaseExceptionHelper.wrapOperation("TASK_QUERY_FAILED", "findOne", ex);
         }
     }
 
+    /** Current change version of the tasks table, or null without change tracking. */
+    public Long tableVersion() {
+        try {
+            return store.tableVersion();
+        } catch (DataAccessException ex) {
+            throw DatabaseExceptionHelper.wrapOperation("TASK_QUERY_FAILED", "tableVersion", ex);
+        }
+    }
+
+    /**
+     * Delta sync: tasks written and ids deleted after {@code since}, merged in
+     * version order and capped at {@code limit} entries.
+     */
+    public TaskChanges changesSince(long since, Integer limit) {
+        Long upTo = tableVersion();
+        if (upTo == null) {
+            throw new IllegalArgumentException("Change tracking is not available for this database");
+        }
+        int max = env.getProperty("app.batch.max-items", Integer.class, 10_000);
+        int l = (limit == null || limit < 1) ? 500 : Math.min(limit, max);
+
+        if (upTo <= since) {
+            return new TaskChanges(List.of(), Math.max(since, upTo), false);
+        }
+        try {
+            // One extra row per side tells whether the merged list was cut short.
+            List<TaskChanges.Change> upserts = store.changedSince(since, upTo, l + 1);
+            List<TaskChanges.Change> deletes = store.deletedSince(since, upTo, l + 1);
+
+            List<TaskChanges.Change> merged = new ArrayList<>(Math.min(l + 1, upserts.size() + deletes.size()));
+            int u = 0;
+            int d = 0;
+            while (merged.size() <= l && (u < upserts.size() || d < deletes.size())) {
+                boolean takeUpsert = d >= deletes.size()
+                        || (u < upserts.size() && upserts.get(u).version() < deletes.get(d).version());
+                merged.add(takeUpsert ? upserts.get(u++) : deletes.get(d++));
+            }
+            if (merged.size() > l) {
+                List<TaskChanges.Change> page = merged.subList(0, l);
+                return new TaskChanges(List.copyOf(page), page.get(l - 1).version(), true);
+            }
+            return new TaskChanges(merged, upTo, false);
+        } catch (DataAccessException ex) {
+            throw DatabaseExceptionHelper.wrapOperation("TASK_QUERY_FAILED", "changesSince", ex);
+        }
+    }
+
     public Optional<Task> update(String id, Task task) {
-        Schema s = schema;
-        String setUpdatedAt = (s.getUpdatedAtColumn() != null) ? (", " + s.getUpdatedAtColumn() + " = CURRENT_TIMESTAMP") : "";
-        String sql = "UPDATE tasks SET text = ?, day = ?, reminder = ?" + setUpdatedAt + " WHERE id = ?";
+        if (writeQueue.isEnabled()) {
+            return await(updateQueued(id, task));
+        }
+        long start = System.nanoTime();
+        boolean updated;
         try {
-            int updated = jdbc.update(sql, task.getText(), task.getDay(), task.isReminder() ? 1 : 0, id);
-            return updated > 0 ? findOne(id) : Optional.empty();
+            updated = store.update(id, task);
+            taskMetrics.record(TaskMetrics.Op.UPDATE, start, true);
+        } catch (DataAccessException ex) {
+            taskMetrics.record(TaskMetrics.Op.UPDATE, start, false);
+            throw DatabaseExceptionHelper.wrapOperation("TASK_UPDATE_FAILED", "update", ex);
+        }
+        try {
+            if (!updated) {
+                return Optional.empty();
+            }
+            taskCache.evictTask(id);
+            taskCache.evictPages();
+            Optional<Task> result = findOne(id);
+            result.ifPresent(changeFeed::updated);
+            return result;
         } catch (DataAccessException ex) {
             throw DatabaseExceptionHelper.wrapOperation("TASK_UPDATE_FAILED", "update", ex);
         }
     }
 
+    /** Queued form of {@link #update}; the future completes once the update is committed. */
+    public CompletableFuture<Optional<Task>> updateQueued(String id, Task task) {
+        if (!writeQueue.isEnabled()) {
+            return CompletableFuture.completedFuture(update(id, task));
+        }
+        return writeQueue.submitUpdate(id, task).thenApply(updated -> {
+            if (updated.isPresent()) {
+                taskCache.evictTask(id);
+                taskCache.evictPages();
+                changeFeed.updated(updated.get());
+            }
+            return updated;
+        });
+    }
+
     public boolean remove(String id) {
+        if (writeQueue.isEnabled()) {
+            return await(removeQueued(id));
+        }
+        long start = System.nanoTime();
         try {
-            String sql = "DELETE FROM tasks WHERE id = ?";
-            int affected = jdbc.update(sql, id);
-            return affected > 0;
+            boolean removed = store.delete(id);
+            taskMetrics.record(TaskMetrics.Op.REMOVE, start, true);
+            if (removed) {
+                taskCache.evictTask(id);
+                taskCache.evictPages();
+                changeFeed.deleted(id);
+            }
+            return removed;
         } catch (DataAccessException ex) {
+            taskMetrics.record(TaskMetrics.Op.REMOVE, start, false);
             throw DatabaseExceptionHelper.wrapOperation("TASK_DELETE_FAILED", "remove", ex);
         }
     }
 
+    /** Queued form of {@link #remove}; the future completes once the delete is committed. */
+    public CompletableFuture<Boolean> removeQueued(String id) {
+        if (!writeQueue.isEnabled()) {
+            return CompletableFuture.completedFuture(remove(id));
+        }
+        return writeQueue.submitRemove(id).thenApply(removed -> {
+            if (removed) {
+                taskCache.evictTask(id);
+                taskCache.evictPages();
+                changeFeed.deleted(id);
+            }
+            return removed;
+        });
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
     public long removeByName(String name) {
+        long start = System.nanoTime();
         try {
-            String sql = "DELETE FROM tasks WHERE text = ?";
-            return jdbc.update(sql, name);
+            // The store reports exactly the deleted rows, so only those are evicted.
+            List<String> ids = store.deleteByText(name);
+            taskMetrics.record(TaskMetrics.Op.REMOVE_BY_NAME, start, true);
+            if (ids == null || ids.isEmpty()) {
+                return 0;
+            }
+            taskCache.evictTasks(ids);
+            taskCache.evictPages();
+            ids.forEach(changeFeed::deleted);
+            return ids.size();
         } catch (DataAccessException ex) {
+            taskMetrics.record(TaskMetrics.Op.REMOVE_BY_NAME, start, false);
             throw DatabaseExceptionHelper.wrapOperation("TASK_DELETE_FAILED", "removeByName", ex);
         }
     }
+
+    /**
+     * Inserts all valid tasks in one transaction (chunked JDBC batches on the SQL store).
+     * Elements without text are reported as invalid and skipped; a database
+     * error rolls the whole request back.
+     */
+    public List<BatchItemResult> createAll(List<Task> tasks) {
+        checkBatchSize(tasks);
+        List<BatchItemResult> results = new ArrayList<>(tasks.size());
+        List<Task> valid = new ArrayList<>(tasks.size());
+        List<Integer> positions = new ArrayList<>(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            if (task == null || task.getText() == null) {
+                results.add(BatchItemResult.invalid(i, task == null ? null : task.getId(), "Task text must not be null"));
+                continue;
+            }
+            if (!StringUtils.hasText(task.getId())) {
+                task.setId(idGenerator.next());
+            }
+            valid.add(task);
+            positions.add(i);
+            results.add(null);
+        }
+        if (valid.isEmpty()) {
+            return results;
+        }
+
+        try {
+            store.insertAll(valid);
+        } catch (DataAccessException ex) {
+            throw DatabaseExceptionHelper.wrapOperation("TASK_CREATE_FAILED", "createAll", ex);
+        }
+        taskCache.evictPages();
+        valid.forEach(changeFeed::created);
+
+        for (int i = 0; i < valid.size(); i++) {
+            results.set(positions.get(i), BatchItemResult.of(positions.get(i), valid.get(i).getId(), BatchItemResult.CREATED));
+        }
+        return results;
+    }
+
+    /** Applies every update in one transaction; ids that do not exist are reported as not_found. */
+    public List<BatchItemResult> updateAll(List<Task> tasks) {
+        checkBatchSize(tasks);
+        List<BatchItemResult> results = new ArrayList<>(tasks.size());
+        List<Task> valid = new ArrayList<>(tasks.size());
+        List<Integer> positions = new ArrayList<>(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            if (task == null || !StringUtils.hasText(task.getId())) {
+                results.add(BatchItemResult.invalid(i, null, "Task id must not be empty"));
+            } else if (task.getText() == null) {
+                results.add(BatchItemResult.invalid(i, task.getId(), "Task text must not be null"));
+            } else {
+                valid.add(task);
+                positions.add(i);
+                results.add(null);
+            }
+        }
+        if (valid.isEmpty()) {
+            return results;
+        }
+
+        int[] counts;
+        try {
+            counts = store.updateAll(valid);
+        } catch (DataAccessException ex) {
+            throw DatabaseExceptionHelper.wrapOperation("TASK_UPDATE_FAILED", "updateAll", ex);
+        }
+        taskCache.evictTasks(valid.stream().map(Task::getId).toList());
+        taskCache.evictPages();
+
+        for (int i = 0; i < valid.size(); i++) {
+            if (counts[i] > 0) {
+                changeFeed.updated(valid.get(i));
+            }
+            String status = counts[i] > 0 ? BatchItemResult.UPDATED : BatchItemResult.NOT_FOUND;
+            results.set(positions.get(i), BatchItemResult.of(positions.get(i), valid.get(i).getId(), status));
+        }
+        return results;
+    }
+
+    /** Deletes every id in one transaction; ids that do not exist are reported as not_found. */
+    public List<BatchItemResult> removeAll(List<String> ids) {
+        checkBatchSize(ids);
+        List<BatchItemResult> results = new ArrayList<>(ids.size());
+        List<String> valid = new ArrayList<>(ids.size());
+        List<Integer> positions = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            String id = ids.get(i);
+            if (!StringUtils.hasText(id)) {
+                results.add(BatchItemResult.invalid(i, id, "Task id must not be empty"));
+            } else {
+                valid.add(id);
+                positions.add(i);
+                results.add(null);
+            }
+        }
+        if (valid.isEmpty()) {
+            return results;
+        }
+
+        int[] counts;
+        try {
+            counts = store.deleteAll(valid);
+        } catch (DataAccessException ex) {
+            throw DatabaseExceptionHelper.wrapOperation("TASK_DELETE_FAILED", "removeAll", ex);
+        }
+        taskCache.evictTasks(valid);
+        taskCache.evictPages();
+
+        for (int i = 0; i < valid.size(); i++) {
+            if (counts[i] > 0) {
+                changeFeed.deleted(valid.get(i));
+            }
+            String status = counts[i] > 0 ? BatchItemResult.DELETED : BatchItemResult.NOT_FOUND;
+            results.set(positions.get(i), BatchItemResult.of(positions.get(i), valid.get(i), status));
+        }
+        return results;
+    }
+
+    private void checkBatchSize(List<?> items) {
+        if (items == null) {
+            throw new IllegalArgumentException("Request body must be an array");
+        }
+        int max = env.getProperty("app.batch.max-items", Integer.class, 10_000);
+        if (items.size() > max) {
+            throw new IllegalArgumentException("At most " + max + " items are allowed per batch request");
+        }
+    }
 }
@@ -0,0 +1,270 @@
+package com.wodendev.springbackend.service;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Statement text for every task query, built once by {@link Schema} after it has
+ * detected the timestamp columns and full-text support. The strings only depend
+ * on that startup state, so request paths reuse them verbatim instead of
+ * concatenating SQL per call, and identical text lets driver-side statement
+ * caches (H2's per-session query cache) hit.
+ *
+ * Page and seek queries only select the columns the row mapper reads, to stay
+ * compatible with legacy schemas.
+ */
+public final class TaskSql {
+    private static final String COLUMNS = "id, text, day, reminder";
+
+    /** Which index a {@link Search} runs against. */
+    public enum SearchMode { FTS5, H2_FULLTEXT, LIKE }
+
+    /** Position of a keyset page; see {@link TaskService#findAfter}. */
+    public enum Seek {
+        /** First page: rows with a sort value. */
+        FIRST,
+        /** Rows after (sort value, id). Without a sort column: rows after id. */
+        AFTER,
+        /** First page of the rows whose sort value is NULL. */
+        NULLS,
+        /** NULL-sorted rows after id. */
+        NULLS_AFTER
+    }
+
+    /**
+     * SQL for one search flavour. {@code page} is the ranked OFFSET query,
+     * {@code predicate} a plain filter on tasks for queries that keep their own
+     * ordering. {@code cappedCount} counts at most as many matches as its second
+     * parameter. Every statement binds the match parameter first.
+     */
+    public record Search(SearchMode mode, String count, String cappedCount, String page, String predicate,
+                         Map<Seek, String> seeks) {
+    }
+
+    private final String insert;
+    private final String update;
+    private final String delete;
+    private final String deleteByText;
+    private final String selectIdsByText;
+    private final String findOne;
+    private final String count;
+    private final String reconcileCount;
+    private final String tableVersion;
+    private final String changedSince;
+    private final String deletedSince;
+    private final String page;
+    private final String export;
+    private final String exportSince;
+    private final String sortColumn;
+    private final Map<Seek, String> seeks;
+    private final Search like;
+    private final Search fullText;
+
+    private TaskSql(Schema schema) {
+        String created = schema.getCreatedAtColumn();
+        String updated = schema.getUpdatedAtColumn();
+
+        StringBuilder cols = new StringBuilder(COLUMNS);
+        StringBuilder vals = new StringBuilder("?, ?, ?, ?");
+        if (created != null) {
+            cols.append(", ").append(created);
+            vals.append(", CURRENT_TIMESTAMP");
+        }
+        if (updated != null) {
+            cols.append(", ").append(updated);
+            vals.append(", CURRENT_TIMESTAMP");
+        }
+        this.insert = "INSERT INTO tasks(" + cols + ") VALUES(" + vals + ")";
+
+        String setUpdatedAt = (updated != null) ? (", " + updated + " = CURRENT_TIMESTAMP") : "";
+        this.update = "UPDATE tasks SET text = ?, day = ?, reminder = ?" + setUpdatedAt + " WHERE id = ?";
+        this.delete = "DELETE FROM tasks WHERE id = ?";
+        this.deleteByText = "DELETE FROM tasks WHERE text = ?";
+        this.selectIdsByText = "SELECT id FROM tasks WHERE text = ?";
+        this.findOne = "SELECT " + COLUMNS + (schema.isRowVersioned() ? ", row_version" : "") + " FROM tasks WHERE id = ?";
+        if (schema.isRowCountMaintained()) {
+            this.count = "SELECT n FROM tasks_count WHERE id = 0";
+            this.reconcileCount = "UPDATE tasks_count SET n = (SELECT COUNT(*) FROM tasks) "
+                    + "WHERE id = 0 AND n <> (SELECT COUNT(*) FROM tasks)";
+        } else {
+            this.count = "SELECT COUNT(*) FROM tasks";
+            this.reconcileCount = null;
+        }
+
+        if (!schema.isRowVersioned()) {
+            this.tableVersion = null;
+            this.changedSince = null;
+            this.deletedSince = null;
+        } else {
+            this.tableVersion = "SELECT v FROM tasks_version WHERE id = 0";
+            // Bounds: (since, upTo], so a reader never skips a version committed between the two queries.
+            this.changedSince = "SELECT " + COLUMNS + ", row_version FROM tasks "
+                    + "WHERE row_version > ? AND row_version <= ? ORDER BY row_version LIMIT ?";
+            this.deletedSince = "SELECT id, row_version FROM tasks_tombstones "
+                    + "WHERE row_version > ? AND row_version <= ? ORDER BY row_version LIMIT ?";
+        }
+
+        String orderBy = created != null ? created : (updated != null ? updated : "id");
+        this.page = "SELECT " + COLUMNS + " FROM tasks ORDER BY " + orderBy + " DESC LIMIT ? OFFSET ?";
+
+        String exportColumns = COLUMNS
+                + ", " + (created != null ? created : "NULL") + " AS created_at"
+                + ", " + (updated != null ? updated : "NULL") + " AS updated_at";
+        this.export = "SELECT " + exportColumns + " FROM tasks";
+        this.exportSince = updated != null ? export + " WHERE " + updated + " >= ?" : null;
+
+        this.sortColumn = created != null ? created : updated;
+        this.seeks = seeks(null);
+
+        this.like = search(SearchMode.LIKE, orderBy,
+                "SELECT COUNT(*) FROM tasks WHERE text LIKE ?",
+                "tasks t WHERE t.text LIKE ?",
+                "",
+                "text LIKE ?");
+
+        if (!schema.isFullTextEnabled()) {
+            this.fullText = null;
+        } else if (schema.isSQLite()) {
+            this.fullText = search(SearchMode.FTS5, orderBy,
+                    "SELECT COUNT(*) FROM tasks_fts WHERE tasks_fts MATCH ?",
+                    "tasks_fts JOIN tasks t ON t.rowid = tasks_fts.rowid WHERE tasks_fts MATCH ?",
+                    "tasks_fts.rank, ",
+                    "rowid IN (SELECT rowid FROM tasks_fts WHERE tasks_fts MATCH ?)");
+        } else if (schema.isH2()) {
+            this.fullText = search(SearchMode.H2_FULLTEXT, orderBy,
+                    "SELECT COUNT(*) FROM FT_SEARCH_DATA(?, 0, 0)",
+                    "FT_SEARCH_DATA(?, 0, 0) ft JOIN tasks t ON t.id = ft.\"KEYS\"[1]",
+                    "ft.SCORE DESC, ",
+                    "id IN (SELECT ft.\"KEYS\"[1] FROM FT_SEARCH_DATA(?, 0, 0) ft)");
+        } else {
+            this.fullText = null;
+        }
+    }
+
+    static TaskSql build(Schema schema) {
+        return new TaskSql(schema);
+    }
+
+    /** @param from replaces "FROM tasks" in the ranked page query, with tasks aliased as t */
+    private Search search(SearchMode mode, String orderBy, String count, String from, String rank, String predicate) {
+        String page = "SELECT t.id, t.text, t.day, t.reminder FROM " + from
+                + " ORDER BY " + rank + "t." + orderBy + " DESC LIMIT ? OFFSET ?";
+        String cappedCount = "SELECT COUNT(*) FROM (" + count.replace("SELECT COUNT(*)", "SELECT 1") + " LIMIT ?) capped";
+        return new Search(mode, count, cappedCount, page, predicate, seeks(predicate));
+    }
+
+    private Map<Seek, String> seeks(String predicate) {
+        Map<Seek, String> out = new EnumMap<>(Seek.class);
+        for (Seek seek : Seek.values()) {
+            out.put(seek, seekSql(predicate, seek));
+        }
+        return Collections.unmodifiableMap(out);
+    }
+
+    private String seekSql(String predicate, Seek seek) {
+        String s = sortColumn;
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS);
+        if (s != null) {
+            sql.append(", ").append(s).append(" AS sort_key");
+        }
+        sql.append(" FROM tasks WHERE 1 = 1");
+        if (predicate != null) {
+            sql.append(" AND ").append(predicate);
+        }
+        if (s == null) {
+            if (seek == Seek.AFTER || seek == Seek.NULLS_AFTER) {
+                sql.append(" AND id < ?");
+            }
+            return sql.append(" ORDER BY id DESC LIMIT ?").toString();
+        }
+        switch (seek) {
+            case FIRST -> sql.append(" AND ").append(s).append(" IS NOT NULL");
+            // The redundant "<=" bound lets the database seek on the sort column.
+            case AFTER -> sql.append(" AND ").append(s).append(" <= ? AND (").append(s).append(" < ? OR id < ?)");
+            case NULLS -> sql.append(" AND ").append(s).append(" IS NULL");
+            case NULLS_AFTER -> sql.append(" AND ").append(s).append(" IS NULL AND id < ?");
+        }
+        return sql.append(" ORDER BY ").append(s).append(" DESC, id DESC LIMIT ?").toString();
+    }
+
+    public String insert() {
+        return insert;
+    }
+
+    public String update() {
+        return update;
+    }
+
+    public String delete() {
+        return delete;
+    }
+
+    public String deleteByText() {
+        return deleteByText;
+    }
+
+    public String selectIdsByText() {
+        return selectIdsByText;
+    }
+
+    public String findOne() {
+        return findOne;
+    }
+
+    /** Unfiltered row count; reads the trigger-maintained counter when Schema keeps one. */
+    public String count() {
+        return count;
+    }
+
+    /** Current change version of the table; null without change tracking (see Schema). */
+    public String tableVersion() {
+        return tableVersion;
+    }
+
+    /** Rows stamped in (since, upTo], oldest first; binds since, upTo, limit. */
+    public String changedSince() {
+        return changedSince;
+    }
+
+    /** Tombstones stamped in (since, upTo], oldest first; binds since, upTo, limit. */
+    public String deletedSince() {
+        return deletedSince;
+    }
+
+    /** Resets the maintained counter to COUNT(*) if they differ; null without a counter. */
+    public String reconcileCount() {
+        return reconcileCount;
+    }
+
+    public String page() {
+        return page;
+    }
+
+    public String export() {
+        return export;
+    }
+
+    /** Null when the table has no updatedAt column. */
+    public String exportSince() {
+        return exportSince;
+    }
+
+    /** Keyset sort column: createdAt, else updatedAt, else null (id order only). */
+    public String sortColumn() {
+        return sortColumn;
+    }
+
+    public String seek(Search filter, Seek seek) {
+        return (filter == null ? seeks : filter.seeks()).get(seek);
+    }
+
+    public Search like() {
+        return like;
+    }
+
+    /** Null when no full-text index is available. */
+    public Search fullText() {
+        return fullText;
+    }
+}
@@ -0,0 +1,71 @@
+package com.wodendev.springbackend.service;
+
+import com.wodendev.springbackend.dto.TaskChanges;
+import com.wodendev.springbackend.entity.Task;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Storage engine behind {@link TaskService}, chosen with {@code app.tasks.store}
+ * (see TaskStoreConfig). TaskService keeps validation, id generation, caching,
+ * metrics and the change feed; a store only reads and writes rows.
+ *
+ * Failures are Spring {@code DataAccessException}s ({@code DuplicateKeyException}
+ * for an id that already exists), so TaskService reports them the same way for
+ * every engine. Listings are newest first; {@code search} is the user's search
+ * term, or null/blank for all tasks.
+ */
+public interface TaskStore {
+
+    /** A listed task and the sort key a cursor resumes after; null when the row has none. */
+    record KeyedTask(Task task, String sortKey) {
+    }
+
+    void insert(Task task);
+
+    /** Inserts all tasks or none. */
+    void insertAll(List<Task> tasks);
+
+    /** Replaces text, day and reminder; false if there is no such id. */
+    boolean update(String id, Task task);
+
+    /** Applies all updates or none; one count (0 or 1) per task, in input order. */
+    int[] updateAll(List<Task> tasks);
+
+    boolean delete(String id);
+
+    /** Deletes all ids or none; one count (0 or 1) per id, in input order. */
+    int[] deleteAll(List<String> ids);
+
+    /** Deletes every task whose text equals {@code text} and returns their ids. */
+    List<String> deleteByText(String text);
+
+    /** Carries the row version when the store tracks changes. */
+    Optional<Task> findOne(String id);
+
+    /** @param countLimit stop counting search matches here; null for an exact count */
+    long count(String search, Integer countLimit);
+
+    List<Task> page(String search, int limit, int offset);
+
+    /** {@link #page(String, int, int)} handed to {@code sink} row by row. */
+    void page(String search, int limit, int offset, TaskService.PageSink sink);
+
+    /** Up to {@code fetch} rows after {@code after} (from the top when null), in listing order. */
+    List<KeyedTask> seek(TaskCursor after, String search, int fetch);
+
+    /** Every task, or those updated at or after {@code updatedSince}, with createdAt/updatedAt filled in. */
+    void export(LocalDateTime updatedSince, Consumer<Task> sink);
+
+    /** Current change version, or null when the store does not track changes. */
+    Long tableVersion();
+
+    /** Tasks last written at a version in (since, upTo], in version order, at most {@code limit}. */
+    List<TaskChanges.Change> changedSince(long since, long upTo, int limit);
+
+    /** Ids deleted at a version in (since, upTo], in version order, at most {@code limit}. */
+    List<TaskChanges.Change> deletedSince(long since, long upTo, int limit);
+}
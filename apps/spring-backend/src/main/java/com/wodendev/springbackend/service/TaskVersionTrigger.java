@@ -0,0 +1,78 @@
+package com.wodendev.springbackend.service;
+
+import org.h2.api.Trigger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * H2 row trigger on tasks (installed by {@link Schema}) that hands out change
+ * versions from the one-row tasks_version counter, like the SQLite triggers: a
+ * write bumps the counter in its own transaction, so the counter row stays
+ * locked until commit and versions become visible in the order they were
+ * issued. Inserts and updates are stamped before they are stored; a delete
+ * records a tombstone, and an insert clears the tombstone of a re-created id.
+ */
+public class TaskVersionTrigger implements Trigger {
+    private int idColumn;
+    private int versionColumn;
+
+    @Override
+    public void init(Connection conn, String schemaName, String triggerName, String tableName, boolean before, int type)
+            throws SQLException {
+        idColumn = column(conn, schemaName, tableName, "ID");
+        versionColumn = column(conn, schemaName, tableName, "ROW_VERSION");
+    }
+
+    private static int column(Connection conn, String schemaName, String tableName, String name) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT ORDINAL_POSITION FROM INFORMATION_SCHEMA.COLUMNS " +
+                        "WHERE TABLE_SCHEMA = ? AND TABLE_NAME = ? AND UPPER(COLUMN_NAME) = ?")) {
+            ps.setString(1, schemaName);
+            ps.setString(2, tableName);
+            ps.setString(3, name);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("tasks." + name.toLowerCase() + " column not found");
+                }
+                return rs.getInt(1) - 1;
+            }
+        }
+    }
+
+    @Override
+    public void fire(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+        long version = nextVersion(conn);
+        if (newRow == null) {
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "MERGE INTO tasks_tombstones (id, row_version) KEY (id) VALUES (?, ?)")) {
+                ps.setObject(1, oldRow[idColumn]);
+                ps.setLong(2, version);
+                ps.executeUpdate();
+            }
+            return;
+        }
+        newRow[versionColumn] = version;
+        if (oldRow == null) {
+            try (PreparedStatement ps = conn.prepareStatement("DELETE FROM tasks_tombstones WHERE id = ?")) {
+                ps.setObject(1, newRow[idColumn]);
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    private static long nextVersion(Connection conn) throws SQLException {
+        try (PreparedStatement bump = conn.prepareStatement("UPDATE tasks_version SET v = v + 1 WHERE id = 0")) {
+            bump.executeUpdate();
+        }
+        try (PreparedStatement read = conn.prepareStatement("SELECT v FROM tasks_version WHERE id = 0");
+             ResultSet rs = read.executeQuery()) {
+            if (!rs.next()) {
+                throw new SQLException("tasks_version row missing");
+            }
+            return rs.getLong(1);
+        }
+    }
+}
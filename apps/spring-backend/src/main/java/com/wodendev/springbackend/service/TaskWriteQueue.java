@@ -0,0 +1,280 @@
+package com.wodendev.springbackend.service;
+
+import com.wodendev.springbackend.entity.Task;
+import com.wodendev.springbackend.exception.DatabaseExceptionHelper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional write pipeline for single-task mutations ({@code app.write-queue.enabled}).
+ *
+ * Callers enqueue a mutation and get a future. One writer thread drains whatever
+ * has queued up (at most {@code app.write-queue.max-batch}), folds repeated updates
+ * of the same id into the last one, and applies the lot in a single transaction.
+ * Futures complete only after that transaction commits, so an acknowledged write
+ * is durable. Under load, more callers means bigger batches instead of more
+ * writers fighting over the SQLite lock. Updates complete with the row as re-read
+ * inside that transaction, the same shape a direct update returns.
+ *
+ * A batch that fails for any reason fails its callers and the writer carries on.
+ * Writes queued once shutdown has begun fail rather than wait forever.
+ */
+@Service
+public class TaskWriteQueue implements InitializingBean, DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(TaskWriteQueue.class);
+
+    private final TaskBatchWriter batchWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int maxBatch;
+    private final BlockingQueue<Op> queue;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public TaskWriteQueue(TaskBatchWriter batchWriter, TransactionTemplate transactionTemplate, Environment env) {
+        this.batchWriter = batchWriter;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = env.getProperty("app.write-queue.enabled", Boolean.class, false);
+        this.maxBatch = Math.max(1, env.getProperty("app.write-queue.max-batch", Integer.class, 256));
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, env.getProperty("app.write-queue.capacity", Integer.class, 10_000)));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::runWriter, "task-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        Op left;
+        while ((left = queue.poll()) != null) {
+            left.fail(shutDown());
+        }
+    }
+
+    private static IllegalStateException shutDown() {
+        return new IllegalStateException("Write queue shut down before the write was applied");
+    }
+
+    public CompletableFuture<Task> submitCreate(Task task) {
+        Op op = new Op(Kind.INSERT, task.getId(), copy(task.getId(), task));
+        enqueue(op);
+        return op.inserted;
+    }
+
+    public CompletableFuture<Optional<Task>> submitUpdate(String id, Task task) {
+        Op op = new Op(Kind.UPDATE, id, copy(id, task));
+        enqueue(op);
+        return op.updated.get(0);
+    }
+
+    public CompletableFuture<Boolean> submitRemove(String id) {
+        Op op = new Op(Kind.DELETE, id, null);
+        enqueue(op);
+        return op.deleted;
+    }
+
+    private void enqueue(Op op) {
+        if (!running) {
+            throw new IllegalStateException("Write queue is not running");
+        }
+        try {
+            // Blocks when the queue is full, which pushes back on the callers.
+            queue.put(op);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing a write", ex);
+        }
+        // Shutdown may have begun after the check above, and the writer and destroy()
+        // may both have drained the queue already. Whoever removes the op fails it.
+        if (!running && queue.remove(op)) {
+            op.fail(shutDown());
+        }
+    }
+
+    private void runWriter() {
+        List<Op> drained = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Op first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                drained.add(first);
+                queue.drainTo(drained, maxBatch - 1);
+                commit(coalesce(drained));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Throwable ex) {
+                // Errors too: a dead writer would leave every queued future pending forever.
+                logger.error("Task write batch failed", ex);
+                drained.forEach(op -> op.fail(ex));
+            } finally {
+                drained.clear();
+            }
+        }
+    }
+
+    /**
+     * Folds every update of an id into the first pending update of that id, as
+     * long as no insert or delete of the same id sits between them. The merged
+     * update carries the newest values and completes all of the callers' futures.
+     */
+    private static List<Op> coalesce(List<Op> drained) {
+        List<Op> steps = new ArrayList<>(drained.size());
+        Map<String, Op> openUpdates = new HashMap<>();
+        for (Op op : drained) {
+            if (op.kind != Kind.UPDATE) {
+                openUpdates.remove(op.id);
+                steps.add(op);
+                continue;
+            }
+            Op open = openUpdates.get(op.id);
+            if (open != null) {
+                open.values = op.values;
+                open.updated.addAll(op.updated);
+            } else {
+                openUpdates.put(op.id, op);
+                steps.add(op);
+            }
+        }
+        return steps;
+    }
+
+    private void commit(List<Op> steps) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> apply(steps));
+            steps.forEach(Op::complete);
+        } catch (DataAccessException ex) {
+            if (steps.size() == 1) {
+                steps.get(0).fail(ex);
+                return;
+            }
+            // Isolate the failing mutation so the rest of the batch still lands.
+            for (Op step : steps) {
+                commit(List.of(step));
+            }
+        }
+    }
+
+    private void apply(List<Op> steps) {
+        int i = 0;
+        while (i < steps.size()) {
+            Kind kind = steps.get(i).kind;
+            int j = i;
+            while (j < steps.size() && steps.get(j).kind == kind) {
+                j++;
+            }
+            List<Op> run = steps.subList(i, j);
+            int[] counts = switch (kind) {
+                case INSERT -> batchWriter.insert(run.stream().map(op -> op.values).toList());
+                case UPDATE -> batchWriter.update(run.stream().map(op -> op.values).toList());
+                case DELETE -> batchWriter.delete(run.stream().map(op -> op.id).toList());
+            };
+            for (int k = 0; k < run.size(); k++) {
+                run.get(k).count = counts[k];
+            }
+            if (kind == Kind.UPDATE) {
+                // Read back before a later step in the batch can change or delete the row.
+                Map<String, Task> rows = batchWriter.reload(
+                        run.stream().filter(op -> op.count > 0).map(op -> op.id).toList());
+                run.forEach(op -> op.row = rows.get(op.id));
+            }
+            i = j;
+        }
+    }
+
+    private static Task copy(String id, Task source) {
+        Task t = new Task();
+        t.setId(id);
+        t.setText(source.getText());
+        t.setDay(source.getDay());
+        t.setReminder(source.isReminder());
+        return t;
+    }
+
+    private enum Kind { INSERT, UPDATE, DELETE }
+
+    private static final class Op {
+        private final Kind kind;
+        private final String id;
+        private Task values;
+        private int count;
+        // An update's row as committed; null if it matched nothing.
+        private Task row;
+
+        private final CompletableFuture<Task> inserted = new CompletableFuture<>();
+        private final List<CompletableFuture<Optional<Task>>> updated = new ArrayList<>(1);
+        private final CompletableFuture<Boolean> deleted = new CompletableFuture<>();
+
+        private Op(Kind kind, String id, Task values) {
+            this.kind = kind;
+            this.id = id;
+            this.values = values;
+            if (kind == Kind.UPDATE) {
+                updated.add(new CompletableFuture<>());
+            }
+        }
+
+        void complete() {
+            switch (kind) {
+                case INSERT -> inserted.complete(values);
+                case UPDATE -> updated.forEach(f -> f.complete(Optional.ofNullable(row)));
+                case DELETE -> deleted.complete(count > 0);
+            }
+        }
+
+        void fail(Throwable ex) {
+            Throwable error = ex;
+            if (ex instanceof DataAccessException dae) {
+                error = switch (kind) {
+                    case INSERT -> DatabaseExceptionHelper.wrapOperation("TASK_CREATE_FAILED", "create", dae);
+                    case UPDATE -> DatabaseExceptionHelper.wrapOperation("TASK_UPDATE_FAILED", "update", dae);
+                    case DELETE -> DatabaseExceptionHelper.wrapOperation("TASK_DELETE_FAILED", "remove", dae);
+                };
+            }
+            switch (kind) {
+                case INSERT -> inserted.completeExceptionally(error);
+                case UPDATE -> {
+                    Throwable e = error;
+                    updated.forEach(f -> f.completeExceptionally(e));
+                }
+                case DELETE -> deleted.completeExceptionally(error);
+            }
+        }
+    }
+}
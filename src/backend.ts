@@ -1,5 +1,5 @@
 import { fork, spawn, type ChildProcess } from 'node:child_process';
-import { existsSync, readdirSync } from 'node:fs';
+import { existsSync, readdirSync, readFileSync } from 'node:fs';
 import { join } from 'node:path';
 import { BrowserWindow } from 'electron';
 import * as constants from './constants';
@@ -70,15 +70,58 @@ function tryResolveBundledJavaHome(resourcesPath: string): string | undefined {
   return undefined;
 }
 
+interface SpringStartupManifest {
+  jar: string;
+  cdsArchive: string;
+  aot: boolean;
+  profiles: string[];
+}
+
+// Written by tools/prepare-spring-dist.ts --fast; absent for regular builds.
+function readStartupManifest(
+  rootBackendFolderPath: string,
+): SpringStartupManifest | undefined {
+  const manifestPath = join(rootBackendFolderPath, 'startup.json');
+  if (!existsSync(manifestPath)) return undefined;
+  try {
+    const manifest = JSON.parse(
+      readFileSync(manifestPath, 'utf8'),
+    ) as SpringStartupManifest;
+    return existsSync(join(rootBackendFolderPath, manifest.jar))
+      ? manifest
+      : undefined;
+  } catch (error) {
+    fileUtils.logToFile(
+      rootBackendFolderPath,
+      `Ignoring unreadable startup.json: ${String(error)}`,
+      'warning',
+    );
+    return undefined;
+  }
+}
+
 function startSpringBackend(
   rootBackendFolderPath: string,
   env: NodeJS.ProcessEnv,
   port: string,
 ): ChildProcess {
-  const jarPath = join(rootBackendFolderPath, 'app.jar');
   const javaCmd = resolveJavaCommand();
-  const springProfile = env.SPRING_PROFILES_ACTIVE ?? env.NODE_ENV ?? 'prod';
+  const manifest = readStartupManifest(rootBackendFolderPath);
+  const baseProfile = env.SPRING_PROFILES_ACTIVE ?? env.NODE_ENV ?? 'prod';
+  const springProfile = [baseProfile, ...(manifest?.profiles ?? [])].join(',');
+  const jvmArgs: string[] = [];
+  if (manifest) {
+    // AutoCreateSharedArchive re-records the archive if the bundled runtime
+    // cannot use the one made at build time.
+    jvmArgs.push(
+      '-XX:+AutoCreateSharedArchive',
+      `-XX:SharedArchiveFile=${join(rootBackendFolderPath, manifest.cdsArchive)}`,
+    );
+    if (manifest.aot) jvmArgs.push('-Dspring.aot.enabled=true');
+  }
+  const jarPath = join(rootBackendFolderPath, manifest?.jar ?? 'app.jar');
   const args = [
+    ...jvmArgs,
     '-jar',
     jarPath,
     `--server.port=${port}`,
@@ -191,6 +234,7 @@ async function checkIfPortIsOpen(
   loadingWindow: BrowserWindow | null,
   maxAttempts = 20,
   timeout = 1000,
+  initialDelay = 500,
 ) {
   const resolvedMaxAttempts = maxAttempts;
   const resolvedTimeout = timeout;
@@ -201,7 +245,9 @@ async function checkIfPortIsOpen(
     ),
   );
 
-  await new Promise((resolve) => setTimeout(resolve, 5000)); // await the backend to start
+  // Polling early is cheap: connections are refused until the server listens,
+  // and the Spring backend answers 503 until its database is warm.
+  await new Promise((resolve) => setTimeout(resolve, initialDelay));
   fileUtils.logToFile(
     logFilePath,
     `Checking if ports are open: ${urls}`,
@@ -49,8 +49,8 @@ app.whenReady().then(async () => {
           constants.URLs,
           process.resourcesPath,
           loadingWindow,
-          20,
-          2000,
+          90,
+          500,
         )
       ) {
         loadingWindow?.close();
@@ -0,0 +1,204 @@
+/*
+  Measure Spring backend startup the way the Electron launcher experiences it:
+  time from spawning java until GET /health answers 200.
+
+  Usage:
+    node --loader ts-node/esm tools/measure-spring-startup.ts [--runs 5] [--mode plain|fast|both]
+
+  - plain: java -jar dist/spring-backend/app.jar
+  - fast:  the AOT + CDS layout described by dist/spring-backend/startup.json
+           (needs "pnpm run build-spring-fast")
+
+  Every mode gets one untimed run that creates the database, then --runs timed
+  runs against that same database, so timings include the usual schema checks
+  but not first-time table creation. Results go to stdout and
+  dist/spring-backend/startup-times.json.
+*/
+
+//#region Imports
+import { spawn, spawnSync, type ChildProcess } from 'node:child_process';
+import {
+  existsSync,
+  mkdtempSync,
+  readFileSync,
+  rmSync,
+  writeFileSync,
+} from 'node:fs';
+import { createServer } from 'node:net';
+import { tmpdir } from 'node:os';
+import { join, resolve } from 'node:path';
+import type { SpringStartupManifest } from './prepare-spring-dist.js';
+//#endregion
+
+//#region Helpers
+type Mode = 'plain' | 'fast';
+
+interface RunResult {
+  mode: Mode;
+  wallMs: number;
+}
+
+function argValue(name: string, fallback: string): string {
+  const i = process.argv.indexOf(name);
+  return i >= 0 && process.argv[i + 1] ? process.argv[i + 1] : fallback;
+}
+
+function javaCommand(): string {
+  const exe = process.platform === 'win32' ? 'java.exe' : 'java';
+  return process.env.JAVA_HOME ? join(process.env.JAVA_HOME, 'bin', exe) : exe;
+}
+
+function freePort(): Promise<number> {
+  return new Promise((res, rej) => {
+    const server = createServer();
+    server.unref();
+    server.on('error', rej);
+    server.listen(0, () => {
+      const address = server.address();
+      const port = typeof address === 'object' && address ? address.port : 0;
+      server.close(() => res(port));
+    });
+  });
+}
+
+function launchArgs(distDir: string, mode: Mode, port: number): string[] {
+  const app = [`--server.port=${port}`];
+  if (mode === 'plain') {
+    return ['-jar', join(distDir, 'app.jar'), ...app, '--spring.profiles.active=prod'];
+  }
+  const manifest = JSON.parse(
+    readFileSync(join(distDir, 'startup.json'), 'utf8'),
+  ) as SpringStartupManifest;
+  return [
+    `-XX:SharedArchiveFile=${join(distDir, manifest.cdsArchive)}`,
+    ...(manifest.aot ? ['-Dspring.aot.enabled=true'] : []),
+    '-jar',
+    join(distDir, manifest.jar),
+    ...app,
+    `--spring.profiles.active=${['prod', ...manifest.profiles].join(',')}`,
+  ];
+}
+
+async function waitForHealth(
+  child: ChildProcess,
+  port: number,
+  timeoutMs: number,
+): Promise<void> {
+  const deadline = Date.now() + timeoutMs;
+  while (Date.now() < deadline) {
+    if (child.exitCode !== null) {
+      throw new Error(`Backend exited with code ${child.exitCode} before it was healthy`);
+    }
+    try {
+      const response = await fetch(`http://localhost:${port}/health`);
+      if (response.ok) return;
+    } catch {
+      // not listening yet
+    }
+    await new Promise((r) => setTimeout(r, 25));
+  }
+  throw new Error(`Backend not healthy within ${timeoutMs}ms`);
+}
+
+async function stop(child: ChildProcess): Promise<void> {
+  if (child.exitCode !== null) return;
+  const exited = new Promise((r) => child.once('exit', r));
+  child.kill();
+  await exited;
+}
+
+async function runOnce(
+  distDir: string,
+  mode: Mode,
+  databasePath: string,
+): Promise<number> {
+  const port = await freePort();
+  const started = performance.now();
+  const child = spawn(javaCommand(), launchArgs(distDir, mode, port), {
+    env: { ...process.env, DATABASE_PATH: databasePath },
+    stdio: 'ignore',
+  });
+  try {
+    await waitForHealth(child, port, 60_000);
+    return performance.now() - started;
+  } finally {
+    await stop(child);
+  }
+}
+
+function summarize(values: number[]) {
+  const sorted = [...values].sort((a, b) => a - b);
+  const mid = Math.floor(sorted.length / 2);
+  const median =
+    sorted.length % 2 === 0 ? (sorted[mid - 1] + sorted[mid]) / 2 : sorted[mid];
+  return {
+    runs: sorted.length,
+    minMs: Math.round(sorted[0]),
+    medianMs: Math.round(median),
+    maxMs: Math.round(sorted[sorted.length - 1]),
+  };
+}
+//#endregion
+
+//#region Main
+async function main(): Promise<void> {
+  const runs = Number(argValue('--runs', '5'));
+  const modeArg = argValue('--mode', 'both');
+  const distDir = resolve('dist/spring-backend');
+
+  const modes: Mode[] =
+    modeArg === 'both' ? ['plain', 'fast'] : [modeArg as Mode];
+  if (modes.includes('fast') && !existsSync(join(distDir, 'startup.json'))) {
+    if (modeArg === 'fast') {
+      throw new Error('No startup.json in dist/spring-backend; run "pnpm run build-spring-fast" first.');
+    }
+    console.warn('No fast-startup layout found; measuring plain mode only.');
+    modes.splice(modes.indexOf('fast'), 1);
+  }
+
+  // java -version prints to stderr.
+  const version = spawnSync(javaCommand(), ['-version'], { encoding: 'utf8' });
+  const javaVersion =
+    (version.stderr || version.stdout || '').split('\n')[0].trim() ||
+    'unknown';
+
+  const results: RunResult[] = [];
+  for (const mode of modes) {
+    const dbDir = mkdtempSync(join(tmpdir(), 'spring-startup-'));
+    const databasePath = join(dbDir, 'database.sqlite3');
+    try {
+      await runOnce(distDir, mode, databasePath);
+      for (let i = 1; i <= runs; i++) {
+        const wallMs = await runOnce(distDir, mode, databasePath);
+        console.log(`${mode} run ${i}/${runs}: ${Math.round(wallMs)} ms`);
+        results.push({ mode, wallMs });
+      }
+    } finally {
+      rmSync(dbDir, { recursive: true, force: true });
+    }
+  }
+
+  const report = {
+    measuredAt: new Date().toISOString(),
+    platform: `${process.platform}-${process.arch}`,
+    java: javaVersion,
+    summary: Object.fromEntries(
+      modes.map((m) => [
+        m,
+        summarize(results.filter((r) => r.mode === m).map((r) => r.wallMs)),
+      ]),
+    ),
+  };
+  writeFileSync(
+    join(distDir, 'startup-times.json'),
+    JSON.stringify(report, null, 2),
+    'utf8',
+  );
+  console.log(JSON.stringify(report.summary, null, 2));
+}
+
+main().catch((err: unknown) => {
+  console.error((err as Error)?.message ?? String(err));
+  process.exit(1);
+});
+//#endregion
@@ -180,6 +180,8 @@ export function main(): void {
     '--no-man-pages',
     '--no-header-files',
     '--compress=2',
+    // Default CDS archive for the image; the fast-startup layout layers app.jsa on top.
+    '--generate-cds-archive',
     '--output',
     outImage,
   ]);
@@ -5,9 +5,11 @@
 */
 
 //#region Imports
+import { execFileSync } from 'node:child_process';
 import {
   existsSync,
   mkdirSync,
+  mkdtempSync,
   readdirSync,
   copyFileSync,
   writeFileSync,
@@ -15,9 +17,20 @@ import {
   rmSync,
   Dirent,
 } from 'node:fs';
+import { tmpdir } from 'node:os';
 import { resolve, join } from 'node:path';
 //#endregion
 
+//#region Types
+// Read by src/backend.ts; paths are relative to dist/spring-backend.
+export interface SpringStartupManifest {
+  jar: string;
+  cdsArchive: string;
+  aot: boolean;
+  profiles: string[];
+}
+//#endregion
+
 //#region Utilities
 function ensureDir(path: string): void {
   if (!existsSync(path)) mkdirSync(path, { recursive: true });
@@ -37,12 +50,78 @@ function pickJar(targetDir: string): string | null {
     .sort((a, b) => a.localeCompare(b));
 
   if (jars.length === 0) return null;
-  return join(targetDir, jars[jars.length - 1]);
+  // The runnable Spring Boot jar carries the "exec" classifier; the plain jar is a library.
+  const exec = jars.filter((n) => n.toLowerCase().endsWith('-exec.jar'));
+  const pick = exec.length > 0 ? exec : jars;
+  return join(targetDir, pick[pick.length - 1]);
+}
+
+function javaCommand(): string {
+  const exe = process.platform === 'win32' ? 'java.exe' : 'java';
+  return process.env.JAVA_HOME ? join(process.env.JAVA_HOME, 'bin', exe) : exe;
+}
+
+/**
+ * Startup-optimized layout (--fast, after "mvn -Pfast-startup package"):
+ * - extracted/app.jar + extracted/lib/: the exploded form CDS needs
+ * - extracted/app.jsa: class data archive recorded by a training run that
+ *   stops right after the context refresh
+ * - startup.json: tells src/backend.ts how to launch it
+ */
+function prepareFastStartup(distDir: string, jar: string): void {
+  const extractedDir = join(distDir, 'extracted');
+  const java = javaCommand();
+
+  execFileSync(
+    java,
+    ['-Djarmode=tools', '-jar', jar, 'extract', '--destination', extractedDir],
+    { stdio: 'inherit' },
+  );
+
+  // Train against a throwaway database so the real one is never touched.
+  const trainingDir = mkdtempSync(join(tmpdir(), 'spring-cds-'));
+  try {
+    execFileSync(
+      java,
+      [
+        '-XX:ArchiveClassesAtExit=' + join(extractedDir, 'app.jsa'),
+        '-Dspring.aot.enabled=true',
+        '-Dspring.context.exit=onRefresh',
+        '-jar',
+        join(extractedDir, 'app.jar'),
+        '--server.port=0',
+        '--spring.profiles.active=prod,fast',
+      ],
+      {
+        stdio: 'inherit',
+        env: {
+          ...process.env,
+          DATABASE_PATH: join(trainingDir, 'training.sqlite3'),
+        },
+      },
+    );
+  } finally {
+    rmSync(trainingDir, { recursive: true, force: true });
+  }
+
+  const manifest: SpringStartupManifest = {
+    jar: 'extracted/app.jar',
+    cdsArchive: 'extracted/app.jsa',
+    aot: true,
+    profiles: ['fast'],
+  };
+  writeFileSync(
+    join(distDir, 'startup.json'),
+    JSON.stringify(manifest, null, 2),
+    'utf8',
+  );
+  console.log('Fast-startup layout (AOT + CDS) written to', extractedDir);
 }
 //#endregion
 
 //#region Main
 function main(): void {
+  const fast = process.argv.includes('--fast');
   // Maven output directory for this repo's pom.xml is workspaceRoot/target by default.
   // Keep apps/spring-backend/target as a fallback for older layouts.
   const rootTarget = resolve('target');
@@ -74,6 +153,13 @@ function main(): void {
   const dest = join(distDir, 'app.jar');
   copyFileSync(jar, dest);
 
+  // Never leave a fast-startup layout from an earlier build next to a new jar.
+  rmSync(join(distDir, 'extracted'), { recursive: true, force: true });
+  rmSync(join(distDir, 'startup.json'), { force: true });
+  if (fast) {
+    prepareFastStartup(distDir, dest);
+  }
+
   // Clean up old log files and create empty ones
   const errorLog = join(distDir, 'error.log');
   const infoLog = join(distDir, 'info.log');